@@ -0,0 +1,90 @@
+package jobshop.benchmarks;
+
+import jobshop.Instance;
+import jobshop.encodings.CriticalPath;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleDecoder;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** Microbenchmarks of the methods on which all solvers spend most of their time.
+ *
+ * Each benchmark runs on a solution of the EST_SPT greedy heuristic for a set of representative instances,
+ * from 10x10 up to 100x20. Run with the <code>jmh</code> maven profile (see the README), which enables the GC
+ * profiler to report the allocation rate of each operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathsBenchmark {
+
+    /** Name of the instance, loaded from the instances directory. */
+    @Param({"ft10", "la21", "la36", "ta01", "ta41", "ta71"})
+    public String instanceName;
+
+    Instance instance;
+    ResourceOrder order;
+    Schedule schedule;
+    Nowicki nowicki;
+    GreedySolver greedy;
+
+    /** Reusable buffers, as used by the solvers in their main loop. */
+    ScheduleDecoder decoder;
+    Schedule target;
+    CriticalPath path;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Instance.fromFile(Paths.get("instances", instanceName));
+        greedy = new GreedySolver(GreedySolver.Priority.EST_SPT);
+        Optional<Schedule> initial = greedy.solve(instance, Long.MAX_VALUE);
+        schedule = initial.orElseThrow();
+        order = new ResourceOrder(schedule);
+        nowicki = new Nowicki();
+        decoder = new ScheduleDecoder(instance);
+        target = new Schedule(instance);
+        path = new CriticalPath(instance);
+    }
+
+    /** Conversion of a resource order into a new schedule, as done by toSchedule(). */
+    @Benchmark
+    public Optional<Schedule> toSchedule() {
+        return order.toSchedule();
+    }
+
+    /** Conversion of a resource order into an existing schedule with a reused decoder. */
+    @Benchmark
+    public boolean decodeInto() {
+        return decoder.decodeInto(order, target);
+    }
+
+    /** Extraction of a critical path and its blocks into a reused buffer. */
+    @Benchmark
+    public CriticalPath criticalPath() {
+        schedule.criticalPath(path);
+        return path;
+    }
+
+    /** Generation of all swaps of the Nowicki and Smutnicki neighborhood. */
+    @Benchmark
+    public List<Nowicki.Swap> allSwaps() {
+        return nowicki.allSwaps(order);
+    }
+
+    /** Construction of a full solution by the greedy heuristic. */
+    @Benchmark
+    public Optional<Schedule> greedySolve() {
+        return greedy.solve(instance, Long.MAX_VALUE);
+    }
+}
@@ -34,6 +34,17 @@ public final class BestKnownResults {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns all instances of a pack that start with the given prefix.
+     * The instances are found from the index of the pack, without going through the list of known instances.
+     * @param namePrefix Prefix that should be looked-up.
+     * @param pack Pack in which instances are looked-up.
+     * @return All instances of the pack that start with the given prefix, in alphabetical order.
+     */
+    public static List<String> instancesMatching(String namePrefix, InstancePack pack) {
+        return pack.namesMatching(namePrefix);
+    }
+
     /**
      * Returns the best known result for the given instance.
      * @param instanceName Instance of which we want to retrieve the best result.
@@ -3,11 +3,11 @@ package jobshop;
 import jobshop.encodings.Task;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /** Represents an instance of a JobShop problem. */
 public final class Instance {
@@ -30,6 +30,15 @@ public final class Instance {
     /** Matrix containing the machine on which each task must be scheduled. */
     final int[][] machines;
 
+    /** Inverse of the machines matrix: taskWithMachine[job][machine] is the task of the job that uses the machine.
+     * Built once when the instance is loaded, see <code>buildIndexes()</code>. */
+    final int[][] taskWithMachine;
+
+    /** Suffix sums of the durations: remainingWork[job][task] is the total duration of the tasks of the job from
+     * the given one (included) to the last one, and remainingWork[job][numTasks] is 0.
+     * Built once when the instance is loaded, see <code>buildIndexes()</code>. */
+    final int[][] remainingWork;
+
     /** Duration of the given task. */
     public int duration(int job, int task) {
         return durations[job][task];
@@ -50,13 +59,45 @@ public final class Instance {
         return this.machine(t.job, t.task);
     }
 
+    /** Identifier of the given task, packed as <code>job * numTasks + task</code>.
+     * Identifiers range from 0 to <code>numJobs * numTasks - 1</code> and are used by encodings to store tasks in
+     * primitive arrays. */
+    public int taskId(int job, int task) {
+        return job * numTasks + task;
+    }
+
+    /** Identifier of the given task, packed as <code>job * numTasks + task</code>. */
+    public int taskId(Task t) {
+        return taskId(t.job, t.task);
+    }
+
+    /** Job of the task with the given identifier. */
+    public int jobOf(int taskId) {
+        return taskId / numTasks;
+    }
+
+    /** Index in its job of the task with the given identifier. */
+    public int taskOf(int taskId) {
+        return taskId % numTasks;
+    }
+
+    /** Task with the given identifier. */
+    public Task task(int taskId) {
+        return new Task(jobOf(taskId), taskOf(taskId));
+    }
+
+    /** Total duration of the tasks of the job that remain to be executed when the given task is the next one
+     * (the given task included). Returns 0 for task = numTasks, i.e. when the job is finished. */
+    public int remainingWork(int job, int task) {
+        return remainingWork[job][task];
+    }
+
     /** Among the tasks of the given job, returns the task number of the one that uses the given machine. */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
-        }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        int task = taskWithMachine[job][wanted_machine];
+        if(task < 0)
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
     }
 
     /**
@@ -72,29 +113,53 @@ public final class Instance {
 
         durations = new int[numJobs][numTasks];
         machines = new int[numJobs][numTasks];
+        taskWithMachine = new int[numJobs][numMachines];
+        remainingWork = new int[numJobs][numTasks + 1];
     }
 
-    /** Parses a instance from a file. */
-    public static Instance fromFile(Path path) throws IOException {
-        String name = path.getFileName().toString();
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
-                .collect(Collectors.toList())
-                .iterator();
-
-        Scanner header = new Scanner(lines.next());
-        int numJobs = header.nextInt();
-        int numTasks = header.nextInt();
-        Instance pb = new Instance(name, numJobs, numTasks);
-
-        for(int job = 0 ; job<numJobs ; job++) {
-            Scanner line = new Scanner(lines.next());
+    /** Fills the <code>taskWithMachine</code> and <code>remainingWork</code> tables from the machines and durations
+     * matrices. Must be called once all machines and durations have been set. */
+    void buildIndexes() {
+        for(int job = 0 ; job < numJobs ; job++) {
+            Arrays.fill(taskWithMachine[job], -1);
             for(int task = 0 ; task < numTasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+                taskWithMachine[job][machines[job][task]] = task;
+            }
+            remainingWork[job][numTasks] = 0;
+            for(int task = numTasks - 1 ; task >= 0 ; task--) {
+                remainingWork[job][task] = remainingWork[job][task + 1] + durations[job][task];
             }
         }
+    }
+
+    /** Loads an instance from a pack of instances (see {@link InstancePack}).
+     *
+     * Only the index of the pack and the requested instance are read. To load many instances, open the pack once with
+     * {@link InstancePack#open(Path)} instead.
+     */
+    public static Instance fromPack(Path pack, String name) throws IOException {
+        return InstancePack.open(pack).instance(name);
+    }
 
-        return pb;
+    /** Parses a instance from a file.
+     *
+     * @throws IOException if the file cannot be read or is malformed. The message of the exception then gives the line
+     *                     and column of the error.
+     */
+    public static Instance fromFile(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the whole file is read at once in a single buffer, and numbers are parsed from its bytes
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException(name + ": file too large");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while(data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading until the buffer is full
+            }
+            data.flip();
+            return InstanceParser.parse(name, data);
+        }
     }
 }
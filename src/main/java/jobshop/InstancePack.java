@@ -0,0 +1,268 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** A binary file packing many instances, loaded by memory-mapping it.
+ *
+ * Format of the file (all numbers are big-endian ints, except name lengths which are shorts):
+ * <pre>
+ *   magic number "JSPK", version, number of instances
+ *   index, sorted by name:  for each instance, the length of its name, its name in ASCII, the offset of its data
+ *   data of each instance:  numJobs, numTasks, machines matrix, durations matrix (both row by row, one row per job)
+ * </pre>
+ *
+ * Opening a pack only reads its index. Instances are created on demand by {@link #instance(String)}, from the mapped
+ * file, and kept for later requests. A pack can be shared between threads.
+ *
+ * A pack is built from a directory of instance files with {@link #build(Path, Path)}, or from the command line:
+ * <pre>
+ *   java -cp target/classes jobshop.InstancePack instances instances.pack
+ * </pre>
+ */
+public final class InstancePack {
+
+    /** "JSPK" in ASCII. */
+    static final int MAGIC = 0x4A53504B;
+    static final int VERSION = 1;
+
+    /** File of the pack, for error messages. */
+    private final Path file;
+
+    /** Names of the instances, in alphabetical order. */
+    private final String[] names;
+
+    /** Offset in the file of the data of each instance, in the order of the names. */
+    private final int[] offsets;
+
+    /** Content of the file. Only accessed with absolute reads, which do not modify the buffer. */
+    private final ByteBuffer data;
+
+    /** Instances already created. */
+    private final ConcurrentHashMap<String, Instance> loaded = new ConcurrentHashMap<>();
+
+    private InstancePack(Path file, String[] names, int[] offsets, ByteBuffer data) {
+        this.file = file;
+        this.names = names;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    /** Opens a pack by memory-mapping the file and reading its index.
+     *
+     * The index is checked against the size of the file: every name must fit in the index, and the data of every
+     * instance in the file.
+     *
+     * @throws IOException if the file cannot be read or is not a pack, for instance if it is truncated.
+     */
+    public static InstancePack open(Path file) throws IOException {
+        ByteBuffer data;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer index = data.duplicate();
+        if(index.remaining() < 12 || index.getInt() != MAGIC) {
+            throw new IOException(file + ": not an instance pack");
+        }
+        int version = index.getInt();
+        if(version != VERSION) {
+            throw new IOException(file + ": unsupported pack version " + version);
+        }
+        try {
+            int count = index.getInt();
+            // each entry of the index takes at least 6 bytes: the length of the name and the offset
+            if(count < 0 || count > index.remaining() / 6) {
+                throw new IOException(file + ": invalid number of instances " + count);
+            }
+            String[] names = new String[count];
+            int[] offsets = new int[count];
+            for(int i = 0 ; i < count ; i++) {
+                int length = index.getShort();
+                if(length < 0 || length > index.remaining()) {
+                    throw new IOException(file + ": invalid length " + length + " of the name of instance " + i);
+                }
+                byte[] name = new byte[length];
+                index.get(name);
+                names[i] = new String(name, StandardCharsets.US_ASCII);
+                offsets[i] = index.getInt();
+                if(i > 0 && names[i - 1].compareTo(names[i]) >= 0) {
+                    throw new IOException(file + ": the index is not sorted by name at " + names[i]);
+                }
+            }
+            for(int i = 0 ; i < count ; i++) {
+                checkData(file, data, names[i], offsets[i], index.position());
+            }
+            return new InstancePack(file, names, offsets, data);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file + ": truncated instance pack");
+        }
+    }
+
+    /** Checks that the data of an instance lies between the end of the index and the end of the file. */
+    private static void checkData(Path file, ByteBuffer data, String name, int offset, int indexEnd) throws IOException {
+        if(offset < indexEnd || offset > data.capacity() - 8) {
+            throw new IOException(file + ": invalid offset " + offset + " of instance " + name);
+        }
+        int numJobs = data.getInt(offset);
+        int numTasks = data.getInt(offset + 4);
+        if(numJobs <= 0 || numTasks <= 0) {
+            throw new IOException(file + ": invalid size " + numJobs + "x" + numTasks + " of instance " + name);
+        }
+        long size = 4L * (2 + 2L * numJobs * numTasks);
+        if(size > data.capacity() - offset) {
+            throw new IOException(file + ": truncated data of instance " + name);
+        }
+    }
+
+    /** Number of instances in the pack. */
+    public int size() {
+        return names.length;
+    }
+
+    /** Returns true if the pack contains an instance with this name. */
+    public boolean contains(String name) {
+        return Arrays.binarySearch(names, name) >= 0;
+    }
+
+    /** Names of all instances that start with the given prefix, in alphabetical order.
+     * The names are found by a binary search in the index. */
+    public List<String> namesMatching(String prefix) {
+        int from = Arrays.binarySearch(names, prefix);
+        if(from < 0) {
+            from = -from - 1;
+        }
+        List<String> matches = new ArrayList<>();
+        for(int i = from ; i < names.length && names[i].startsWith(prefix) ; i++) {
+            matches.add(names[i]);
+        }
+        return matches;
+    }
+
+    /** Returns the instance with the given name, creating it from the pack on the first request.
+     *
+     * @throws RuntimeException if there is no such instance in the pack, or if its data is not a valid instance.
+     */
+    public Instance instance(String name) {
+        return loaded.computeIfAbsent(name, this::read);
+    }
+
+    /** Creates an instance from its data in the pack. */
+    private Instance read(String name) {
+        int i = Arrays.binarySearch(names, name);
+        if(i < 0) {
+            throw new RuntimeException("No instance named " + name + " in the pack");
+        }
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(offsets[i]);
+        IntBuffer ints = buffer.asIntBuffer();
+        int numJobs = ints.get();
+        int numTasks = ints.get();
+        Instance pb = new Instance(name, numJobs, numTasks);
+        for(int job = 0 ; job < numJobs ; job++) {
+            ints.get(pb.machines[job]);
+        }
+        for(int job = 0 ; job < numJobs ; job++) {
+            ints.get(pb.durations[job]);
+        }
+        // the sizes were checked when the pack was opened, the content is checked here
+        for(int job = 0 ; job < numJobs ; job++) {
+            boolean[] used = new boolean[pb.numMachines];
+            for(int task = 0 ; task < numTasks ; task++) {
+                int machine = pb.machines[job][task];
+                if(machine < 0 || machine >= pb.numMachines || used[machine]) {
+                    throw new RuntimeException(file + ": invalid machine " + machine + " in job " + job + " of " + name);
+                }
+                used[machine] = true;
+                if(pb.durations[job][task] < 0) {
+                    throw new RuntimeException(file + ": negative duration in job " + job + " of " + name);
+                }
+            }
+        }
+        pb.buildIndexes();
+        return pb;
+    }
+
+    /** Builds a pack with all instance files of a directory: files without extension, like "ft06" (other files, such
+     * as a README.md, are ignored).
+     *
+     * @throws IOException if a file cannot be read or is not a valid instance.
+     */
+    public static void build(Path directory, Path packFile) throws IOException {
+        List<Instance> instances = new ArrayList<>();
+        List<Path> files;
+        try(Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().contains("."))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for(Path file : files) {
+            instances.add(Instance.fromFile(file));
+        }
+        Files.write(packFile, encode(instances));
+    }
+
+    /** Encodes the given instances (sorted by name) in the pack format. */
+    static byte[] encode(List<Instance> instances) {
+        instances = new ArrayList<>(instances);
+        instances.sort((a, b) -> a.name.compareTo(b.name));
+
+        int indexSize = 12;
+        for(Instance instance : instances) {
+            indexSize += 2 + instance.name.getBytes(StandardCharsets.US_ASCII).length + 4;
+        }
+        int size = indexSize;
+        for(Instance instance : instances) {
+            size += 4 * (2 + 2 * instance.numJobs * instance.numTasks);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(instances.size());
+        int offset = indexSize;
+        for(Instance instance : instances) {
+            byte[] name = instance.name.getBytes(StandardCharsets.US_ASCII);
+            out.putShort((short) name.length).put(name).putInt(offset);
+            offset += 4 * (2 + 2 * instance.numJobs * instance.numTasks);
+        }
+        for(Instance instance : instances) {
+            out.putInt(instance.numJobs).putInt(instance.numTasks);
+            for(int[] row : instance.machines) {
+                for(int machine : row) {
+                    out.putInt(machine);
+                }
+            }
+            for(int[] row : instance.durations) {
+                for(int duration : row) {
+                    out.putInt(duration);
+                }
+            }
+        }
+        return out.array();
+    }
+
+    /** Builds a pack from the command line: the directory of the instances, then the pack file to create. */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2) {
+            System.err.println("Usage: InstancePack <instance directory> <pack file>");
+            System.exit(1);
+        }
+        build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Packed " + open(Paths.get(args[1])).size() + " instances in " + args[1]);
+    }
+}
@@ -0,0 +1,152 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** Parser of the text format of instances.
+ *
+ * The first line holds the number of jobs and the number of tasks per job. It is followed by one line per job, with
+ * for each task the machine on which it executes and its duration. Anything after a '#' is a comment, and extra
+ * numbers at the end of a line are ignored.
+ *
+ * The parser reads the raw bytes of the file and converts the numbers directly into the matrices of the instance,
+ * without creating intermediate strings.
+ */
+final class InstanceParser {
+
+    /** Name of the parsed instance, for error messages. */
+    private final String name;
+
+    /** Content of the file. */
+    private final ByteBuffer data;
+
+    /** Position of the next byte to read, and its line and column (both starting at 1). */
+    private int pos;
+    private int line = 1;
+    private int column = 1;
+
+    private InstanceParser(String name, ByteBuffer data) {
+        this.name = name;
+        this.data = data;
+        this.pos = data.position();
+    }
+
+    /** Parses an instance from the content of a file, between the position and the limit of the buffer. */
+    static Instance parse(String name, ByteBuffer data) throws IOException {
+        InstanceParser parser = new InstanceParser(name, data);
+
+        parser.skipBlankLines();
+        int numJobs = parser.nextInt("number of jobs");
+        int numTasks = parser.nextInt("number of tasks");
+        if(numJobs <= 0 || numTasks <= 0) {
+            throw parser.error("the number of jobs and tasks must be positive");
+        }
+        parser.skipLine();
+        Instance pb = new Instance(name, numJobs, numTasks);
+
+        // each job visits each machine exactly once, as the pack loader also requires
+        boolean[] used = new boolean[pb.numMachines];
+        for(int job = 0 ; job < numJobs ; job++) {
+            parser.skipBlankLines();
+            Arrays.fill(used, false);
+            for(int task = 0 ; task < numTasks ; task++) {
+                int machine = parser.nextInt("machine of task " + task + " of job " + job);
+                if(machine >= pb.numMachines) {
+                    throw parser.error("machine " + machine + " does not exist (" + pb.numMachines + " machines)");
+                }
+                if(used[machine]) {
+                    throw parser.error("machine " + machine + " is used twice by job " + job);
+                }
+                used[machine] = true;
+                pb.machines[job][task] = machine;
+                pb.durations[job][task] = parser.nextInt("duration of task " + task + " of job " + job);
+            }
+            parser.skipLine();
+        }
+        pb.buildIndexes();
+        return pb;
+    }
+
+    private boolean atEnd() {
+        return pos >= data.limit();
+    }
+
+    private byte peek() {
+        return data.get(pos);
+    }
+
+    private void advance() {
+        if(data.get(pos) == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        pos++;
+    }
+
+    /** Skips the rest of the current line, including its end. */
+    private void skipLine() {
+        while(!atEnd() && peek() != '\n') {
+            advance();
+        }
+        if(!atEnd()) {
+            advance();
+        }
+    }
+
+    /** Skips the lines that contain nothing but spaces and comments. */
+    private void skipBlankLines() {
+        while(!atEnd()) {
+            int start = pos;
+            int startLine = line;
+            int startColumn = column;
+            while(!atEnd() && (peek() == ' ' || peek() == '\t' || peek() == '\r')) {
+                advance();
+            }
+            if(!atEnd() && peek() != '\n' && peek() != '#') {
+                // the line has content: go back to its beginning
+                pos = start;
+                line = startLine;
+                column = startColumn;
+                return;
+            }
+            skipLine();
+        }
+    }
+
+    /** Reads the next non-negative integer of the current line.
+     *
+     * @param what Description of the expected number, for error messages.
+     */
+    private int nextInt(String what) throws IOException {
+        while(!atEnd() && (peek() == ' ' || peek() == '\t' || peek() == '\r')) {
+            advance();
+        }
+        if(atEnd() || peek() == '\n' || peek() == '#') {
+            throw error("expected " + what + " but found the end of the line");
+        }
+        if(peek() < '0' || peek() > '9') {
+            throw error("expected " + what + " but found '" + (char) peek() + "'");
+        }
+        int value = 0;
+        while(!atEnd() && peek() >= '0' && peek() <= '9') {
+            int digit = peek() - '0';
+            if(value > (Integer.MAX_VALUE - digit) / 10) {
+                throw error("number too large for " + what);
+            }
+            value = value * 10 + digit;
+            advance();
+        }
+        if(!atEnd() && peek() != ' ' && peek() != '\t' && peek() != '\r' && peek() != '\n' && peek() != '#') {
+            throw error("expected " + what + " but found '" + (char) peek() + "'");
+        }
+        return value;
+    }
+
+    /** Error at the current position. */
+    private IOException error(String message) {
+        return new IOException(name + ":" + line + ":" + column + ": " + message);
+    }
+}
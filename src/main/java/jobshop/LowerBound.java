@@ -0,0 +1,147 @@
+package jobshop;
+
+import jobshop.util.IndexedHeap;
+
+import java.util.Arrays;
+
+/** Lower bounds of the makespan of an instance, used to stop a search as soon as its best solution is proven optimal.
+ *
+ * Three bounds are computed:
+ *  - the job bound: the total duration of the longest job;
+ *  - the machine bound: for each machine, the earliest a task can start on it (its head), plus the total duration of
+ *    its tasks, plus the shortest time a task needs after it (its tail);
+ *  - the Jackson bound: for each machine, the makespan of the optimal preemptive schedule of its tasks, each one
+ *    released at its head and followed by its tail. It is computed with the preemptive rule of Jackson (run the
+ *    released task with the longest tail) and is never lower than the machine bound.
+ *
+ * Without any other information, the head of a task is the total duration of the previous tasks of its job and its
+ * tail the total duration of the next ones. The Jackson bound of a machine can also be computed with any heads and
+ * tails, for instance those of a partial solution in a branch and bound.
+ *
+ * A LowerBound holds scratch buffers sized for one instance and is not thread-safe.
+ * Tasks are identified by their number job * numTasks + task.
+ */
+public final class LowerBound {
+
+    /** Instance whose makespan is bounded. */
+    public final Instance instance;
+
+    /** Head and tail of each task in the instance alone. */
+    private final int[] head;
+    private final int[] tail;
+
+    /** Tasks of the machine being bounded, as (head << 32 | job), sorted by head. */
+    private final long[] byHead;
+
+    /** Remaining duration of each job's task in the preemptive schedule. */
+    private final int[] remaining;
+
+    /** Released tasks that are not finished, by job, keyed by the opposite of their tail. */
+    private final IndexedHeap released;
+
+    /** Creates a new lower bound calculator for the given instance. */
+    public LowerBound(Instance instance) {
+        this.instance = instance;
+        int numTasks = instance.numJobs * instance.numTasks;
+        this.head = new int[numTasks];
+        this.tail = new int[numTasks];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                int id = instance.taskId(job, task);
+                head[id] = instance.remainingWork(job, 0) - instance.remainingWork(job, task);
+                tail[id] = instance.remainingWork(job, task + 1);
+            }
+        }
+        this.byHead = new long[instance.numJobs];
+        this.remaining = new int[instance.numJobs];
+        this.released = new IndexedHeap(instance.numJobs);
+    }
+
+    /** Best lower bound of the makespan: the max of the job and Jackson bounds. */
+    public int value() {
+        return Math.max(jobBound(), jacksonBound());
+    }
+
+    /** Total duration of the longest job. */
+    public int jobBound() {
+        int bound = 0;
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            bound = Math.max(bound, instance.remainingWork(job, 0));
+        }
+        return bound;
+    }
+
+    /** Max over the machines of the smallest head, plus the total duration, plus the smallest tail of its tasks. */
+    public int machineBound() {
+        int bound = 0;
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            int minHead = Integer.MAX_VALUE;
+            int minTail = Integer.MAX_VALUE;
+            int work = 0;
+            for(int job = 0 ; job < instance.numJobs ; job++) {
+                int task = instance.task_with_machine(job, machine);
+                int id = instance.taskId(job, task);
+                minHead = Math.min(minHead, head[id]);
+                minTail = Math.min(minTail, tail[id]);
+                work += instance.duration(job, task);
+            }
+            bound = Math.max(bound, minHead + work + minTail);
+        }
+        return bound;
+    }
+
+    /** Max over the machines of the makespan of their preemptive one-machine relaxation. */
+    public int jacksonBound() {
+        return jacksonBound(head, tail);
+    }
+
+    /** Max over the machines of the makespan of their preemptive one-machine relaxation, with the given heads and
+     * tails (indexed by task identifier). */
+    public int jacksonBound(int[] head, int[] tail) {
+        int bound = 0;
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            bound = Math.max(bound, jacksonBound(machine, head, tail));
+        }
+        return bound;
+    }
+
+    /** Makespan of the optimal preemptive schedule of the tasks of a machine, each one released at its head and
+     * followed by its tail (heads and tails are indexed by task identifier). Computed in O(J log J). */
+    public int jacksonBound(int machine, int[] head, int[] tail) {
+        final int numJobs = instance.numJobs;
+        for(int job = 0 ; job < numJobs ; job++) {
+            int task = instance.task_with_machine(job, machine);
+            byHead[job] = (long) head[instance.taskId(job, task)] << 32 | job;
+            remaining[job] = instance.duration(job, task);
+        }
+        Arrays.sort(byHead);
+        released.clear();
+
+        int bound = 0;
+        int time = 0;
+        int next = 0;
+        while(next < numJobs || !released.isEmpty()) {
+            if(released.isEmpty()) {
+                time = Math.max(time, (int) (byHead[next] >> 32));
+            }
+            // release all tasks whose head is reached
+            while(next < numJobs && (int) (byHead[next] >> 32) <= time) {
+                int job = (int) byHead[next++];
+                released.add(job, -tail[instance.taskId(job, instance.task_with_machine(job, machine))]);
+            }
+            // run the released task with the longest tail until it ends or another task is released
+            int job = released.peek();
+            int run = remaining[job];
+            if(next < numJobs) {
+                run = Math.min(run, (int) (byHead[next] >> 32) - time);
+            }
+            time += run;
+            remaining[job] -= run;
+            if(remaining[job] == 0) {
+                bound = Math.max(bound, time - (int) released.key(job));
+                released.poll();
+            }
+        }
+        return bound;
+    }
+}
@@ -1,15 +1,21 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.file.Path;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleValidator;
 import jobshop.solvers.*;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
@@ -39,6 +45,26 @@ public class Main {
                 .required(true)
                 .help("Instance(s) to solve (space separated if more than one). All instances starting with the given " +
                         "string will be selected. (e.g. \"ft\" will select the instances ft06, ft10 and ft20.");
+        parser.addArgument("--parallel")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of (instance, solver) pairs to solve concurrently. Solvers that run their own threads " +
+                        "(descent_*_par, taboo_par_*, bnb) can only be used sequentially. Default is 1 (sequential).");
+        parser.addArgument("--pack")
+                .help("Pack of instances (built with jobshop.InstancePack) from which instances are loaded, instead of " +
+                        "the files of the instances/ directory.");
+        parser.addArgument("--trace")
+                .help("CSV file in which to write the convergence trace of each run: one line per improvement of the " +
+                        "best solution (instance,solver,elapsed_ms,iteration,makespan).");
+        parser.addArgument("--ttt")
+                .help("CSV file in which to write the time taken by each run to reach the target " +
+                        "(instance,solver,target,elapsed_ms,iteration). Runs that never reach it are reported with " +
+                        "an empty time.");
+        parser.addArgument("--target")
+                .setDefault(0.0)
+                .type(Double.class)
+                .help("Target of the time-to-target trace, as a percentage above the best known result. " +
+                        "Default is 0 (the best known result itself).");
 
         // parse command line arguments
         Namespace ns = null;
@@ -60,16 +86,66 @@ public class Main {
         // convert the timeout from seconds to milliseconds.
         long solveTimeMs = ns.getLong("timeout") * 1000;
 
+        int parallelism = ns.getInt("parallel");
+        if(parallelism < 1) {
+            System.err.println("ERROR: the number of parallel runs must be at least 1.");
+            System.exit(1);
+        }
+
+        double targetPercent = ns.getDouble("target");
+        PrintStream trace = null;
+        PrintStream ttt = null;
+        try {
+            if(ns.getString("trace") != null) {
+                trace = new PrintStream(ns.getString("trace"));
+                trace.println("instance,solver,elapsed_ms,iteration,makespan");
+            }
+            if(ns.getString("ttt") != null) {
+                ttt = new PrintStream(ns.getString("ttt"));
+                ttt.println("instance,solver,target,elapsed_ms,iteration");
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot open trace file: " + e.getMessage());
+            System.exit(1);
+        }
+
         // Get the list of solvers that we should benchmark.
         // We also check that we have a solver available for the given name and print an error message otherwise.
         List<String> solversToTest = ns.getList("solver");
         List<Solver> solvers = solversToTest.stream().map(Solver::getSolver).collect(Collectors.toList());
 
+        // the CPU time of the thread running a solver does not account for the threads of the solver itself, and
+        // concurrent runs of such solvers would compete for the cores: they are only timed (by the wall clock) when
+        // runs are sequential.
+        for(int solverId = 0 ; solverId < solvers.size() ; solverId++) {
+            if(parallelism > 1 && solvers.get(solverId).runsOwnThreads()) {
+                System.err.println("ERROR: solver " + solversToTest.get(solverId) + " runs its own threads and " +
+                        "cannot be used with --parallel " + parallelism + ". Use --parallel 1.");
+                System.exit(1);
+            }
+        }
+
+        // open the pack of instances, if any. Only its index is read at this point.
+        InstancePack pack = null;
+        if(ns.getString("pack") != null) {
+            try {
+                pack = InstancePack.open(Paths.get(ns.getString("pack")));
+            } catch (IOException e) {
+                System.err.println("ERROR: cannot open the pack of instances: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
         // retrieve all instances on which we should run the solvers.
         List<String> instances = new ArrayList<>();
         List<String> instancePrefixes = ns.getList("instance");
         for(String instancePrefix : instancePrefixes) {
-            List<String> matches = BestKnownResults.instancesMatching(instancePrefix);
+            // instances of a pack can only be evaluated if their best known result is available
+            List<String> matches = pack == null
+                    ? BestKnownResults.instancesMatching(instancePrefix)
+                    : BestKnownResults.instancesMatching(instancePrefix, pack).stream()
+                            .filter(BestKnownResults::isKnown)
+                            .collect(Collectors.toList());
             if(matches.isEmpty()) {
                 System.err.println("ERROR: instance prefix \"" + instancePrefix + "\" does not match any instance.");
                 System.err.println("       available instances: " + Arrays.toString(BestKnownResults.instances));
@@ -83,13 +159,44 @@ public class Main {
         // average distance to best known result for each solver
         float[] avg_distances = new float[solversToTest.size()];
 
+        // pool running the (instance, solver) pairs. Results are printed in submission order.
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        });
+
         try {
+            // load all instances and submit all runs so that the workers never wait on the main thread
+            List<Instance> loaded = new ArrayList<>();
+            List<List<Future<Run>>> runs = new ArrayList<>();
+            for(String instanceName : instances) {
+                // load instance from the pack or from its file.
+                Instance instance = pack != null
+                        ? pack.instance(instanceName)
+                        : Instance.fromFile(Paths.get("instances/", instanceName));
+                loaded.add(instance);
+
+                List<Future<Run>> instanceRuns = new ArrayList<>();
+                for(int solverId = 0 ; solverId < solvers.size() ; solverId++) {
+                    // concurrent runs each get their own solver object, since solvers may keep state during a run
+                    Solver solver = parallelism == 1 ? solvers.get(solverId) : Solver.getSolver(solversToTest.get(solverId));
+                    // the runtime is the CPU time of the thread running the solver, whatever the parallelism, unless
+                    // the solver works in threads of its own: that thread then mostly waits, and the wall clock is used
+                    boolean cpuTime = !solver.runsOwnThreads();
+                    instanceRuns.add(pool.submit(() -> Run.execute(solver, instance, solveTimeMs, cpuTime)));
+                }
+                runs.add(instanceRuns);
+            }
+
             // header of the result table :
-            //   - solver names (first line)
+            //   - solver names, with the unit of their runtime column (first line)
             //   - name of each column (second line)
             output.print(  "                         ");
-            for(String s : solversToTest)
-                output.printf("%-30s", s);
+            for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                String unit = solvers.get(solverId).runsOwnThreads() ? "wall ms" : "cpu ms";
+                output.printf("%-30s", solversToTest.get(solverId) + " (" + unit + ")");
+            }
             output.println();
             output.print("instance size  best      ");
             for(String s : solversToTest) {
@@ -97,35 +204,31 @@ public class Main {
             }
             output.println();
 
-            // for all instances, load it from f
-            for(String instanceName : instances) {
+            // for all instances, print the results of all solvers as soon as they are available
+            for(int instanceId = 0 ; instanceId < instances.size() ; instanceId++) {
+                String instanceName = instances.get(instanceId);
+                Instance instance = loaded.get(instanceId);
+
                 // get the best known result for this instance
                 int bestKnown = BestKnownResults.of(instanceName);
 
-                // load instance from file.
-                Path path = Paths.get("instances/", instanceName);
-                Instance instance = Instance.fromFile(path);
-
                 // print some general statistics on the instance
                 output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
 
-                // run all selected solvers on the instance and print the results
                 for(int solverId = 0 ; solverId < solvers.size() ; solverId++) {
-                    // Select the next solver to run. Given the solver name passed on the command line,
-                    // we lookup the `Main.solvers` hash map to get the solver object with the given name.
-                    Solver solver = solvers.get(solverId);
-
-                    // start chronometer and compute deadline for the solver to provide a result.
-                    long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
-                    // run the solver on the current instance
-                    Optional<Schedule> result = solver.solve(instance, deadline);
-                    // measure elapsed time (in milliseconds)
-                    long runtime = System.currentTimeMillis() - start;
+                    // wait for the run of this solver on the current instance
+                    Run run = runs.get(instanceId).get(solverId).get();
+                    Optional<Schedule> result = run.result;
+                    long runtime = run.runtime;
 
                     // check that the solver returned a valid solution
-                    if(result.isEmpty() || !result.get().isValid()) {
-                        System.err.println("ERROR: solver did not provide a valid schedule");
+                    if(result.isEmpty()) {
+                        System.err.println("ERROR: solver did not provide a schedule");
+                        System.exit(1); // bug in implementation, bail out
+                    }
+                    Optional<ScheduleValidator.Violation> violation = result.get().firstViolation();
+                    if(violation.isPresent()) {
+                        System.err.println("ERROR: solver did not provide a valid schedule: " + violation.get());
                         System.exit(1); // bug in implementation, bail out
                     }
                     // we have a valid schedule
@@ -139,6 +242,22 @@ public class Main {
 
                     output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
                     output.flush();
+
+                    // write the traces of the run. Events are only read once the run is over.
+                    String solverName = solversToTest.get(solverId);
+                    if(trace != null) {
+                        for(Event event : run.events) {
+                            trace.printf("%s,%s,%d,%d,%d%n",
+                                    instanceName, solverName, event.elapsed, event.iteration, event.makespan);
+                        }
+                    }
+                    if(ttt != null) {
+                        int target = (int) Math.floor(bestKnown * (1 + targetPercent / 100));
+                        Optional<Event> reached = run.events.stream().filter(e -> e.makespan <= target).findFirst();
+                        ttt.printf("%s,%s,%d,%s,%s%n", instanceName, solverName, target,
+                                reached.map(e -> Long.toString(e.elapsed)).orElse(""),
+                                reached.map(e -> Integer.toString(e.iteration)).orElse(""));
+                    }
                 }
                 output.println();
             }
@@ -156,6 +275,67 @@ public class Main {
             // there was uncaught exception, print the stack trace and exit with error.
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            pool.shutdownNow();
+            if(trace != null)
+                trace.close();
+            if(ttt != null)
+                ttt.close();
+        }
+    }
+
+    /** Improvement of the best solution during a run. */
+    static final class Event {
+        final long elapsed;
+        final int iteration;
+        final int makespan;
+
+        Event(long elapsed, int iteration, int makespan) {
+            this.elapsed = elapsed;
+            this.iteration = iteration;
+            this.makespan = makespan;
+        }
+    }
+
+    /** Result of a solver on an instance, with the time it took to produce it. */
+    static final class Run {
+        /** Solution returned by the solver. */
+        final Optional<Schedule> result;
+        /** Time taken by the solver, in milliseconds. */
+        final long runtime;
+        /** Improvements of the best solution reported by the solver, in chronological order. */
+        final List<Event> events;
+
+        Run(Optional<Schedule> result, long runtime, List<Event> events) {
+            this.result = result;
+            this.runtime = runtime;
+            this.events = events;
+        }
+
+        /** Runs the solver on the instance in the current thread.
+         *
+         * @param cpuTime If true, the runtime is the CPU time consumed by the current thread, which is not affected
+         *                by other threads competing for the cores. Otherwise it is the elapsed (wall-clock) time.
+         */
+        static Run execute(Solver solver, Instance instance, long solveTimeMs, boolean cpuTime) {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            boolean useCpuTime = cpuTime && threads.isCurrentThreadCpuTimeSupported();
+
+            // start chronometer and compute deadline for the solver to provide a result.
+            long start = System.currentTimeMillis();
+            long startCpu = useCpuTime ? threads.getCurrentThreadCpuTime() : 0;
+            long deadline = System.currentTimeMillis() + solveTimeMs;
+            // run the solver on the current instance. The solver may report events from several of its threads, but
+            // never concurrently and always before solve returns (see ImprovementListener): the list of this run needs
+            // no synchronization, even when runs are concurrent.
+            List<Event> events = new ArrayList<>();
+            Optional<Schedule> result = solver.solve(instance, deadline,
+                    (elapsed, iteration, makespan) -> events.add(new Event(elapsed, iteration, makespan)));
+            // measure elapsed time (in milliseconds)
+            long runtime = useCpuTime
+                    ? (threads.getCurrentThreadCpuTime() - startCpu) / 1_000_000
+                    : System.currentTimeMillis() - start;
+            return new Run(result, runtime, events);
         }
     }
 }
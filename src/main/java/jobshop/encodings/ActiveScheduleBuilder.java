@@ -0,0 +1,278 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.util.IndexedHeap;
+
+import java.util.Arrays;
+
+/** Builds active schedules with the algorithm of Giffler and Thompson.
+ *
+ * In an active schedule, no task can start earlier without delaying another one: unlike the semi-active schedules
+ * produced by {@link ScheduleDecoder}, a task is placed in an idle gap of its machine whenever it fits.
+ *
+ * At each step, the builder considers the ready tasks (the first unscheduled task of each job) and finds the one with
+ * the earliest completion time C, on machine m. The conflict set contains the ready tasks of m that can start
+ * before C. A {@link Selector} picks one of them, which is scheduled as early as possible.
+ * The choices of the selector can follow any encoding (see {@link #following(ResourceOrder)} and
+ * {@link #following(JobNumbers)}) or any priority rule.
+ *
+ * The ready tasks are kept in an indexed heap keyed by their earliest completion time, so that each step costs
+ * O(k log J) where k is the number of ready tasks on the selected machine.
+ * A builder holds scratch buffers sized for one instance and can be reused for any number of schedules.
+ * A builder is not thread-safe: concurrent threads should each use their own.
+ *
+ * Tasks are identified by their number job * numTasks + task.
+ */
+public final class ActiveScheduleBuilder {
+
+    /** Chooses the next task to schedule among the conflict set. */
+    @FunctionalInterface
+    public interface Selector {
+        /** Returns the identifier of the task to schedule.
+         *
+         * @param builder Builder in its current state, which can be queried for the earliest start of the candidates.
+         * @param conflictSet Identifiers of the candidates, all on the same machine. Only the first size are meaningful.
+         * @param size Number of candidates (at least one).
+         */
+        int select(ActiveScheduleBuilder builder, int[] conflictSet, int size);
+    }
+
+    /** Instance of the schedules to build. */
+    public final Instance instance;
+
+    /** Ready tasks, by job, keyed by their earliest completion time. */
+    private final IndexedHeap ready;
+
+    /** Next task to schedule of each job (numTasks when the job is finished). */
+    private final int[] nextTask;
+
+    /** Time at which each job and each machine become free. */
+    private final int[] jobFree;
+    private final int[] machineFree;
+
+    /** Last task scheduled on each machine (-1 if none). */
+    private final int[] lastOfMachine;
+
+    /** Jobs whose ready task executes on each machine: readyOnMachine[m * numJobs ... m * numJobs + numReady[m] - 1]. */
+    private final int[] readyOnMachine;
+    private final int[] numReady;
+    /** Index of each job in the list of its machine, -1 if the job is finished. */
+    private final int[] indexOnMachine;
+
+    /** Candidates of the current step. */
+    private final int[] conflictSet;
+
+    /** Tasks in the order in which they were scheduled. */
+    private final int[] scheduled;
+
+    /** Start time of each task. */
+    private final int[] startTime;
+
+    /** For each task, the task (on its job or machine) whose end time determines its start time, -1 if none. */
+    private final int[] predecessor;
+
+    /** Makespan of the last built schedule. */
+    private int makespan;
+
+    /** Creates a new builder with buffers sized for the given instance. */
+    public ActiveScheduleBuilder(Instance instance) {
+        this.instance = instance;
+        this.ready = new IndexedHeap(instance.numJobs);
+        this.nextTask = new int[instance.numJobs];
+        this.jobFree = new int[instance.numJobs];
+        this.machineFree = new int[instance.numMachines];
+        this.lastOfMachine = new int[instance.numMachines];
+        this.readyOnMachine = new int[instance.numMachines * instance.numJobs];
+        this.numReady = new int[instance.numMachines];
+        this.indexOnMachine = new int[instance.numJobs];
+        this.conflictSet = new int[instance.numJobs];
+        this.scheduled = new int[instance.numJobs * instance.numTasks];
+        this.startTime = new int[instance.numJobs * instance.numTasks];
+        this.predecessor = new int[instance.numJobs * instance.numTasks];
+    }
+
+    /** Earliest start time of a ready task: when both its job and its machine are free. */
+    public int earliestStart(int taskId) {
+        int job = instance.jobOf(taskId);
+        return Math.max(jobFree[job], machineFree[instance.machine(job, instance.taskOf(taskId))]);
+    }
+
+    /** Earliest completion time of the ready task of the job. */
+    private int earliestCompletion(int job) {
+        int task = nextTask[job];
+        return Math.max(jobFree[job], machineFree[instance.machine(job, task)]) + instance.duration(job, task);
+    }
+
+    /** Makes the next task of the job ready, if any. */
+    private void release(int job) {
+        if(nextTask[job] == instance.numTasks) {
+            indexOnMachine[job] = -1;
+            return;
+        }
+        int m = instance.machine(job, nextTask[job]);
+        indexOnMachine[job] = numReady[m];
+        readyOnMachine[m * instance.numJobs + numReady[m]++] = job;
+        ready.add(job, earliestCompletion(job));
+    }
+
+    /** Removes the ready task of the job from the list of its machine. */
+    private void unlist(int job, int machine) {
+        int offset = machine * instance.numJobs;
+        int last = readyOnMachine[offset + --numReady[machine]];
+        readyOnMachine[offset + indexOnMachine[job]] = last;
+        indexOnMachine[last] = indexOnMachine[job];
+    }
+
+    /** Builds an active schedule, computing the start time of all tasks without building a Schedule object.
+     *
+     * The result can then be queried with {@link #startTime(int)}, {@link #makespan()} and {@link #scheduled(int)}.
+     */
+    public void run(Selector selector) {
+        final int numJobs = instance.numJobs;
+        ready.clear();
+        Arrays.fill(nextTask, 0);
+        Arrays.fill(jobFree, 0);
+        Arrays.fill(machineFree, 0);
+        Arrays.fill(lastOfMachine, -1);
+        Arrays.fill(numReady, 0);
+        makespan = 0;
+        for(int job = 0 ; job < numJobs ; job++) {
+            release(job);
+        }
+
+        for(int step = 0 ; step < scheduled.length ; step++) {
+            // earliest completion time among all ready tasks, and its machine
+            int first = ready.peek();
+            int completion = (int) ready.key(first);
+            int m = instance.machine(first, nextTask[first]);
+
+            // conflict set: ready tasks of the machine that can start before this completion time
+            int size = 0;
+            int offset = m * numJobs;
+            for(int i = 0 ; i < numReady[m] ; i++) {
+                int job = readyOnMachine[offset + i];
+                // (the task with the earliest completion is always a candidate, even with a zero duration)
+                if(Math.max(jobFree[job], machineFree[m]) < completion || job == first) {
+                    conflictSet[size++] = instance.taskId(job, nextTask[job]);
+                }
+            }
+            int chosen = size == 1 ? conflictSet[0] : selector.select(this, conflictSet, size);
+            int job = instance.jobOf(chosen);
+            assert instance.taskOf(chosen) == nextTask[job] && instance.machine(job, nextTask[job]) == m;
+
+            // schedule the chosen task as early as possible, delayed by its job or its machine
+            int start = Math.max(jobFree[job], machineFree[m]);
+            if(start == 0) {
+                predecessor[chosen] = -1;
+            } else if(jobFree[job] >= machineFree[m]) {
+                predecessor[chosen] = chosen - 1;
+            } else {
+                predecessor[chosen] = lastOfMachine[m];
+            }
+            startTime[chosen] = start;
+            scheduled[step] = chosen;
+            int end = start + instance.duration(job, nextTask[job]);
+            jobFree[job] = end;
+            machineFree[m] = end;
+            lastOfMachine[m] = chosen;
+            makespan = Math.max(makespan, end);
+
+            ready.remove(job);
+            unlist(job, m);
+            nextTask[job]++;
+            // the other ready tasks of the machine can now only complete later
+            for(int i = 0 ; i < numReady[m] ; i++) {
+                int other = readyOnMachine[offset + i];
+                ready.update(other, earliestCompletion(other));
+            }
+            release(job);
+        }
+    }
+
+    /** Builds a new active schedule. */
+    public Schedule build(Selector selector) {
+        Schedule schedule = new Schedule(instance);
+        buildInto(selector, schedule);
+        return schedule;
+    }
+
+    /** Builds an active schedule, overwriting the start times of the given one. */
+    public void buildInto(Selector selector, Schedule target) {
+        run(selector);
+        target.fill(startTime, predecessor, makespan);
+    }
+
+    /** Resource order of the last built schedule. */
+    public ResourceOrder resourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        for(int id : scheduled) {
+            Task task = instance.task(id);
+            order.addTaskToMachine(instance.machine(task), task);
+        }
+        return order;
+    }
+
+    /** Start time of the given task in the last built schedule. */
+    public int startTime(int taskId) {
+        return startTime[taskId];
+    }
+
+    /** Makespan of the last built schedule. */
+    public int makespan() {
+        return makespan;
+    }
+
+    /** The i-th task scheduled while building the last schedule. */
+    public int scheduled(int i) {
+        return scheduled[i];
+    }
+
+    /** Selector following the order of the tasks on each machine of a resource order: among the candidates, the task
+     * that comes first on the machine is selected.
+     * The resource order may be incomplete or contain cycles: remaining conflicts are resolved by job number. */
+    public static Selector following(ResourceOrder order) {
+        return (builder, conflictSet, size) -> {
+            int best = conflictSet[0];
+            for(int i = 1 ; i < size ; i++) {
+                int candidate = conflictSet[i];
+                if(rank(order, candidate) < rank(order, best)
+                        || (rank(order, candidate) == rank(order, best) && candidate < best)) {
+                    best = candidate;
+                }
+            }
+            return best;
+        };
+    }
+
+    /** Position of the task in the resource order, tasks not added being last. */
+    private static int rank(ResourceOrder order, int taskId) {
+        int index = order.getIndexOfTaskInMachine(taskId);
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    /** Selector following a sequence of job numbers: among the candidates, the task that appears first in the
+     * sequence is selected. This is the usual active decoding of the operation-based encoding. */
+    public static Selector following(JobNumbers sequence) {
+        Instance instance = sequence.instance;
+        // position in the sequence of each task, tasks absent from it being last
+        int[] rank = new int[instance.numJobs * instance.numTasks];
+        Arrays.fill(rank, Integer.MAX_VALUE);
+        int[] nextTask = new int[instance.numJobs];
+        for(int i = 0 ; i < sequence.nextToSet ; i++) {
+            int job = sequence.jobs[i];
+            if(nextTask[job] < instance.numTasks) {
+                rank[instance.taskId(job, nextTask[job]++)] = i;
+            }
+        }
+        return (builder, conflictSet, size) -> {
+            int best = conflictSet[0];
+            for(int i = 1 ; i < size ; i++) {
+                int candidate = conflictSet[i];
+                if(rank[candidate] < rank[best] || (rank[candidate] == rank[best] && candidate < best)) {
+                    best = candidate;
+                }
+            }
+            return best;
+        };
+    }
+}
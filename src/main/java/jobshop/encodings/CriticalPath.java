@@ -0,0 +1,97 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+/** Reusable buffer holding a critical path of a schedule and its decomposition into blocks.
+ *
+ * The buffer is filled by {@link Schedule#criticalPath(CriticalPath)}, or by
+ * {@link ScheduleDecoder#criticalPath(CriticalPath)} for the resource order that was last decoded. Tasks are stored by their identifier
+ * (job * numTasks + task), in the order in which they are executed along the path.
+ * A block is a maximal subsequence of the path whose tasks all execute on the same machine (consecutively on it).
+ *
+ * A buffer is sized for one instance and can be reused for any number of schedules of that instance.
+ */
+public final class CriticalPath {
+
+    /** Instance of the schedules whose critical path can be stored. */
+    public final Instance instance;
+
+    /** Tasks of the path, only the first <code>length</code> elements are meaningful. */
+    final int[] tasks;
+    int length;
+
+    /** Index in <code>tasks</code> of the first task of each block. Only the first <code>numBlocks</code> elements
+     * are meaningful. */
+    final int[] blockStart;
+    int numBlocks;
+
+    /** Creates an empty buffer for the given instance. */
+    public CriticalPath(Instance instance) {
+        this.instance = instance;
+        this.tasks = new int[instance.numJobs * instance.numTasks];
+        this.blockStart = new int[instance.numJobs * instance.numTasks];
+    }
+
+    /** Fills the path by following the predecessor links from the given last task back to a task without
+     * predecessor (-1), then splits it into blocks. */
+    void follow(int last, int[] predecessor) {
+        length = 0;
+        for(int cur = last ; cur != -1 ; cur = predecessor[cur]) {
+            tasks[length++] = cur;
+        }
+        reverseAndSplit();
+    }
+
+    /** Puts in execution order the <code>length</code> tasks of the path, stored from its end, and splits the path
+     * into blocks. */
+    void reverseAndSplit() {
+        for(int i = 0, j = length-1 ; i < j ; i++, j--) {
+            int tmp = tasks[i];
+            tasks[i] = tasks[j];
+            tasks[j] = tmp;
+        }
+
+        // a new block starts whenever the machine changes along the path
+        numBlocks = 0;
+        int previousMachine = -1;
+        for(int i = 0 ; i < length ; i++) {
+            int t = tasks[i];
+            int machine = instance.machine(instance.jobOf(t), instance.taskOf(t));
+            if(machine != previousMachine) {
+                blockStart[numBlocks++] = i;
+                previousMachine = machine;
+            }
+        }
+    }
+
+    /** Number of tasks on the path. */
+    public int length() {
+        return length;
+    }
+
+    /** Identifier of the i-th task of the path. */
+    public int task(int i) {
+        return tasks[i];
+    }
+
+    /** Number of blocks on the path. */
+    public int numBlocks() {
+        return numBlocks;
+    }
+
+    /** Index on the path of the first task of the given block. */
+    public int blockStart(int block) {
+        return blockStart[block];
+    }
+
+    /** Index on the path of the last task of the given block. */
+    public int blockEnd(int block) {
+        return block + 1 < numBlocks ? blockStart[block + 1] - 1 : length - 1;
+    }
+
+    /** Machine on which all tasks of the given block execute. */
+    public int blockMachine(int block) {
+        int t = tasks[blockStart[block]];
+        return instance.machine(instance.jobOf(t), instance.taskOf(t));
+    }
+}
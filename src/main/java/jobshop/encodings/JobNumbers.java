@@ -0,0 +1,149 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/** Encoding of a solution by a sequence of job numbers (operation-based encoding, or permutation with repetition).
+ *
+ * Each job number appears numTasks times in the sequence: the k-th occurrence of job j stands for the task (j, k).
+ * Tasks are scheduled in the order of the sequence, each one at the end of its machine's queue.
+ * Since the order of the tasks of a job always follows the sequence, any permutation of a complete sequence is a
+ * valid solution: no sequence can contain a cycle, unlike a resource order.
+ */
+public final class JobNumbers extends Encoding {
+
+    /** The sequence of job numbers. Only the first <code>nextToSet</code> elements are meaningful. */
+    public final int[] jobs;
+
+    /** Index of the next element of the sequence to be set. */
+    public int nextToSet = 0;
+
+    /** Creates a new empty sequence. */
+    public JobNumbers(Instance instance) {
+        super(instance);
+        this.jobs = new int[instance.numJobs * instance.numTasks];
+        Arrays.fill(jobs, -1);
+    }
+
+    /** Creates a complete sequence from the given job numbers (which are copied). */
+    public JobNumbers(Instance instance, int[] jobs) {
+        super(instance);
+        if(jobs.length != instance.numJobs * instance.numTasks) {
+            throw new RuntimeException("A sequence of job numbers must have " + instance.numJobs * instance.numTasks
+                    + " elements, got " + jobs.length);
+        }
+        this.jobs = jobs.clone();
+        this.nextToSet = jobs.length;
+    }
+
+    /** Creates a sequence from a schedule, where tasks appear in the order of their start times. */
+    public JobNumbers(Schedule schedule) {
+        this(schedule.instance, IntStream.range(0, schedule.instance.numJobs * schedule.instance.numTasks)
+                .boxed()
+                // by start time, then by task number so that the tasks of a job stay ordered even with zero durations
+                .sorted(Comparator.<Integer>comparingInt(id ->
+                        schedule.startTime(schedule.instance.jobOf(id), schedule.instance.taskOf(id)))
+                        .thenComparingInt(id -> schedule.instance.taskOf(id)))
+                .mapToInt(schedule.instance::jobOf)
+                .toArray());
+    }
+
+    /** Creates a sequence with the same machine orders as the given resource order.
+     *
+     * Tasks appear in a topological order of the disjunctive graph of the resource order.
+     *
+     * @throws RuntimeException if the resource order is incomplete or contains a cycle.
+     */
+    public JobNumbers(ResourceOrder order) {
+        super(order.instance);
+        ScheduleDecoder decoder = new ScheduleDecoder(instance);
+        if(!decoder.run(order)) {
+            throw new RuntimeException("The resource order does not represent a valid solution");
+        }
+        this.jobs = new int[instance.numJobs * instance.numTasks];
+        for(int i = 0 ; i < jobs.length ; i++) {
+            jobs[i] = instance.jobOf(decoder.topologicalOrder(i));
+        }
+        this.nextToSet = jobs.length;
+    }
+
+    /** Creates a copy of the given sequence. */
+    public JobNumbers(JobNumbers original) {
+        super(original.instance);
+        this.jobs = original.jobs.clone();
+        this.nextToSet = original.nextToSet;
+    }
+
+    /** Appends the given job number to the sequence, which stands for the next unscheduled task of this job. */
+    public void addTask(int jobNumber) {
+        this.jobs[nextToSet++] = jobNumber;
+    }
+
+    /** Returns true if the sequence is complete: each job appears exactly numTasks times. */
+    public boolean isComplete() {
+        if(nextToSet != jobs.length) {
+            return false;
+        }
+        int[] occurrences = new int[instance.numJobs];
+        for(int job : jobs) {
+            if(job < 0 || job >= instance.numJobs || ++occurrences[job] > instance.numTasks) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Converts this sequence into a resource order with the same machine orders. */
+    public ResourceOrder toResourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        int[] nextTask = new int[instance.numJobs];
+        for(int i = 0 ; i < nextToSet ; i++) {
+            Task task = new Task(jobs[i], nextTask[jobs[i]]++);
+            order.addTaskToMachine(instance.machine(task), task);
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<Schedule> toSchedule() {
+        return toSchedule(new JobNumbersDecoder(instance));
+    }
+
+    /** Converts this sequence into a schedule, using the scratch buffers of the given decoder. */
+    public Optional<Schedule> toSchedule(JobNumbersDecoder decoder) {
+        return decoder.decode(this);
+    }
+
+    /** Converts this sequence into an active schedule, resolving the conflicts of the Giffler and Thompson algorithm
+     * in the order it specifies. The result is always valid. */
+    public Schedule toActiveSchedule() {
+        return new ActiveScheduleBuilder(instance).build(ActiveScheduleBuilder.following(this));
+    }
+
+    /** Creates an exact copy of this sequence. */
+    public JobNumbers copy() {
+        return new JobNumbers(this);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOfRange(jobs, 0, nextToSet));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JobNumbers that = (JobNumbers) o;
+        return nextToSet == that.nextToSet && Arrays.equals(jobs, that.jobs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(jobs) + nextToSet;
+    }
+}
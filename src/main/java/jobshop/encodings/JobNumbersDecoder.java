@@ -0,0 +1,134 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Converts sequences of job numbers into schedules where every task starts as early as possible (semi-active
+ * schedules).
+ *
+ * The sequence is read once: each task starts when both its job and its machine are free, which takes constant
+ * time per task. Unlike {@link ScheduleDecoder}, no cycle detection is needed since every complete sequence is
+ * valid.
+ *
+ * A decoder holds scratch buffers sized for one instance and can be reused for any number of sequences of that
+ * instance. A decoder is not thread-safe: concurrent threads should each use their own.
+ */
+public final class JobNumbersDecoder {
+
+    /** Instance of the sequences to decode. */
+    public final Instance instance;
+
+    /** Next task to schedule of each job. */
+    private final int[] nextTask;
+
+    /** Last task scheduled on each job and on each machine (-1 if none). */
+    private final int[] lastOfJob;
+    private final int[] lastOfMachine;
+
+    /** Time at which each job and each machine become free. */
+    private final int[] jobFree;
+    private final int[] machineFree;
+
+    /** Start time of each task. */
+    private final int[] startTime;
+
+    /** For each task, the task (on its job or machine) whose end time determines its start time, -1 if none. */
+    private final int[] predecessor;
+
+    /** Makespan of the last decoded sequence. */
+    private int makespan;
+
+    /** Creates a new decoder with buffers sized for the given instance. */
+    public JobNumbersDecoder(Instance instance) {
+        this.instance = instance;
+        this.nextTask = new int[instance.numJobs];
+        this.lastOfJob = new int[instance.numJobs];
+        this.lastOfMachine = new int[instance.numMachines];
+        this.jobFree = new int[instance.numJobs];
+        this.machineFree = new int[instance.numMachines];
+        this.startTime = new int[instance.numJobs * instance.numTasks];
+        this.predecessor = new int[instance.numJobs * instance.numTasks];
+    }
+
+    /** Computes the earliest start time of all tasks of the sequence, without building a schedule.
+     *
+     * @return False if the sequence is incomplete or a job appears more than numTasks times.
+     */
+    public boolean run(JobNumbers sequence) {
+        assert sequence.instance == instance;
+        if(sequence.nextToSet != startTime.length) {
+            return false;
+        }
+        Arrays.fill(nextTask, 0);
+        Arrays.fill(lastOfJob, -1);
+        Arrays.fill(lastOfMachine, -1);
+        Arrays.fill(jobFree, 0);
+        Arrays.fill(machineFree, 0);
+        makespan = 0;
+
+        for(int i = 0 ; i < sequence.nextToSet ; i++) {
+            int job = sequence.jobs[i];
+            if(job < 0 || job >= instance.numJobs || nextTask[job] == instance.numTasks) {
+                return false;
+            }
+            int task = nextTask[job]++;
+            int machine = instance.machine(job, task);
+            int id = instance.taskId(job, task);
+
+            // the task starts when both its job and its machine are free, and is delayed by the one freed last
+            int start;
+            if(jobFree[job] >= machineFree[machine]) {
+                start = jobFree[job];
+                predecessor[id] = lastOfJob[job];
+            } else {
+                start = machineFree[machine];
+                predecessor[id] = lastOfMachine[machine];
+            }
+            if(start == 0) {
+                predecessor[id] = -1;
+            }
+            startTime[id] = start;
+            int end = start + instance.duration(job, task);
+            jobFree[job] = end;
+            machineFree[machine] = end;
+            lastOfJob[job] = id;
+            lastOfMachine[machine] = id;
+            makespan = Math.max(makespan, end);
+        }
+        return true;
+    }
+
+    /** Converts the sequence into a new schedule.
+     *
+     * @return An empty optional if the sequence does not represent a valid solution.
+     */
+    public Optional<Schedule> decode(JobNumbers sequence) {
+        Schedule schedule = new Schedule(instance);
+        return decodeInto(sequence, schedule) ? Optional.of(schedule) : Optional.empty();
+    }
+
+    /** Converts the sequence into a schedule, overwriting the start times of the given one.
+     *
+     * @return False if the sequence does not represent a valid solution, in which case the target schedule
+     *         is left untouched.
+     */
+    public boolean decodeInto(JobNumbers sequence, Schedule target) {
+        if(!run(sequence)) {
+            return false;
+        }
+        target.fill(startTime, predecessor, makespan);
+        return true;
+    }
+
+    /** Start time of the given task in the last decoded sequence. */
+    public int startTime(int taskId) {
+        return startTime[taskId];
+    }
+
+    /** Makespan of the last decoded sequence. */
+    public int makespan() {
+        return makespan;
+    }
+}
@@ -10,19 +10,22 @@ import java.util.stream.IntStream;
 /** Encoding of a solution by the ordering of tasks on each machine. */
 public final class ResourceOrder extends Encoding {
 
-    // for each machine m, taskByMachine[m] is an array of tasks to be
-    // executed on this machine in the same order
-    final Task[][] tasksByMachine;
+    // for each machine m, the tasks to be executed on this machine in the same order.
+    // The sequence of machine m is stored in tasksByMachine[m * numJobs] ... tasksByMachine[(m+1) * numJobs - 1]
+    // and each task is stored by its identifier (job * numTasks + task), -1 for an uninitialized slot.
+    final int[] tasksByMachine;
 
+    // inverse of tasksByMachine: for each task identifier, its index in the queue of its machine (-1 if not added yet)
+    final int[] positionOfTask;
+
+    /** Returns the index of the task in the queue of its machine, or -1 if it has not been added to it. */
     public int getIndexOfTaskInMachine(Task task) {
-        //System.out.println("machines : "+ Arrays.deepToString(tasksByMachine));
-        int machine = instance.machine(task);
-        for(int i=0; i<tasksByMachine[machine].length; i++) {
-            if (tasksByMachine[machine][i].equals(task)) {
-                return i;
-            }
-        }
-        return -1;
+        return positionOfTask[instance.taskId(task)];
+    }
+
+    /** Returns the index in the queue of its machine of the task with the given identifier (-1 if not added). */
+    public int getIndexOfTaskInMachine(int taskId) {
+        return positionOfTask[taskId];
     }
 
     // for each machine, indicate how many tasks have been initialized
@@ -33,8 +36,11 @@ public final class ResourceOrder extends Encoding {
     {
         super(instance);
 
-        // matrix of null elements (null is the default value of objects)
-        tasksByMachine = new Task[instance.numMachines][instance.numJobs];
+        // no task in any slot
+        tasksByMachine = new int[instance.numMachines * instance.numJobs];
+        Arrays.fill(tasksByMachine, -1);
+        positionOfTask = new int[instance.numJobs * instance.numTasks];
+        Arrays.fill(positionOfTask, -1);
 
         // no task scheduled on any machine (0 is the default value)
         nextFreeSlot = new int[instance.numMachines];
@@ -46,18 +52,24 @@ public final class ResourceOrder extends Encoding {
         super(schedule.instance);
         Instance pb = schedule.instance;
 
-        this.tasksByMachine = new Task[pb.numMachines][];
+        this.tasksByMachine = new int[pb.numMachines * pb.numJobs];
         this.nextFreeSlot = new int[instance.numMachines];
+        this.positionOfTask = new int[pb.numJobs * pb.numTasks];
 
         for(int m = 0; m<schedule.instance.numMachines ; m++) {
             final int machine = m;
 
             // for this machine, find all tasks that are executed on it and sort them by their start time
-            tasksByMachine[m] =
+            int[] sorted =
                     IntStream.range(0, pb.numJobs) // all job numbers
                             .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per job)
                             .sorted(Comparator.comparing(t -> schedule.startTime(t.job, t.task))) // sorted by start time
-                            .toArray(Task[]::new); // as new array and store in tasksByMachine
+                            .mapToInt(pb::taskId) // as task identifiers
+                            .toArray();
+            System.arraycopy(sorted, 0, tasksByMachine, m * pb.numJobs, pb.numJobs);
+            for(int i = 0 ; i < pb.numJobs ; i++) {
+                positionOfTask[sorted[i]] = i;
+            }
 
             // indicate that all tasks have been initialized for machine m
             nextFreeSlot[m] = instance.numJobs;
@@ -67,10 +79,8 @@ public final class ResourceOrder extends Encoding {
     public ResourceOrder(ResourceOrder original) {
         super(original.instance);
         this.nextFreeSlot = original.nextFreeSlot.clone();
-        this.tasksByMachine = new Task[original.tasksByMachine.length][];
-        for(int i=0 ; i<this.tasksByMachine.length ; i++) {
-            this.tasksByMachine[i] = original.tasksByMachine[i].clone();
-        }
+        this.tasksByMachine = original.tasksByMachine.clone();
+        this.positionOfTask = original.positionOfTask.clone();
     }
 
     /** Adds the given task to the queue of the given machine. */
@@ -78,7 +88,18 @@ public final class ResourceOrder extends Encoding {
         if(instance.machine(task) != machine) {
             throw new RuntimeException("Task " + task + " cannot be scheduled on machine "+machine);
         }
-        tasksByMachine[machine][nextFreeSlot[machine]] = task;
+        int id = instance.taskId(task);
+        tasksByMachine[machine * instance.numJobs + nextFreeSlot[machine]] = id;
+        positionOfTask[id] = nextFreeSlot[machine];
+        nextFreeSlot[machine] += 1;
+    }
+
+    /** Adds the task with the given identifier (job * numTasks + task) to the queue of its machine.
+     * This is the allocation-free counterpart of {@link #addTaskToMachine(int, Task)}. */
+    public void addTaskToMachine(int taskId) {
+        int machine = instance.machine(instance.jobOf(taskId), instance.taskOf(taskId));
+        tasksByMachine[machine * instance.numJobs + nextFreeSlot[machine]] = taskId;
+        positionOfTask[taskId] = nextFreeSlot[machine];
         nextFreeSlot[machine] += 1;
     }
 
@@ -89,7 +110,17 @@ public final class ResourceOrder extends Encoding {
      * @return The i-th task scheduled on a machine.
      */
     public Task getTaskOfMachine(int machine, int taskIndex) {
-        return tasksByMachine[machine][taskIndex];
+        int id = getTaskIdOfMachine(machine, taskIndex);
+        return id < 0 ? null : instance.task(id);
+    }
+
+    /** Returns the identifier (job * numTasks + task) of the i-th task scheduled on a particular machine.
+     *
+     * This is the allocation-free counterpart of {@link #getTaskOfMachine(int, int)}.
+     * Returns -1 if the slot has not been initialized yet.
+     */
+    public int getTaskIdOfMachine(int machine, int taskIndex) {
+        return tasksByMachine[machine * instance.numJobs + taskIndex];
     }
 
     /** Exchange the order of two tasks that are scheduled on a given machine.
@@ -99,62 +130,32 @@ public final class ResourceOrder extends Encoding {
      * @param indexTask2 Position of the second task in the machine's queue
      */
     public void swapTasks(int machine, int indexTask1, int indexTask2) {
-        Task tmp = tasksByMachine[machine][indexTask1];
-        tasksByMachine[machine][indexTask1] = tasksByMachine[machine][indexTask2];
-        tasksByMachine[machine][indexTask2] = tmp;
+        int offset = machine * instance.numJobs;
+        int tmp = tasksByMachine[offset + indexTask1];
+        tasksByMachine[offset + indexTask1] = tasksByMachine[offset + indexTask2];
+        tasksByMachine[offset + indexTask2] = tmp;
+        positionOfTask[tasksByMachine[offset + indexTask1]] = indexTask1;
+        positionOfTask[tmp] = indexTask2;
     }
 
     @Override
     public Optional<Schedule> toSchedule() {
-        // indicates, for each task that have been scheduled, its start time
-        Schedule schedule = new Schedule(instance);
-
-        // for each job, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByJob = new int[instance.numJobs];
-
-        // for each machine, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByMachine = new int[instance.numMachines];
-
-        // for each machine, earliest time at which the machine can be used
-        int[] releaseTimeOfMachine = new int[instance.numMachines];
-
-
-        // loop while there remains a job that has unscheduled tasks
-        while(IntStream.range(0, instance.numJobs).anyMatch(m -> nextToScheduleByJob[m] < instance.numTasks)) {
-
-            // selects a task that has no unscheduled predecessor on its job and machine :
-            //  - it is the next to be schedule on a machine
-            //  - it is the next to be scheduled on its job
-            // If there is no such task, we have cyclic dependency and the solution is invalid.
-            Optional<Task> schedulable =
-                    IntStream.range(0, instance.numMachines) // all machines ...
-                    .filter(m -> nextToScheduleByMachine[m] < instance.numJobs) // ... with unscheduled jobs
-                    .mapToObj(m -> this.tasksByMachine[m][nextToScheduleByMachine[m]]) // tasks that are next to schedule on a machine ...
-                    .filter(task -> task.task == nextToScheduleByJob[task.job])  // ... and on their job
-                    .findFirst(); // select the first one if any
-
-            if(schedulable.isPresent()) {
-                // we have a schedulable task, lets call it t
-                Task t = schedulable.get();
-                int machine = instance.machine(t.job, t.task);
-
-                // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : schedule.endTime(t.job, t.task-1);
-                est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                schedule.setStartTime(t.job, t.task, est);
-
-                // mark the task as scheduled
-                nextToScheduleByJob[t.job]++;
-                nextToScheduleByMachine[machine]++;
-                // increase the release time of the machine
-                releaseTimeOfMachine[machine] = est + instance.duration(t.job, t.task);
-            } else {
-                // no tasks are schedulable, there is no solution for this resource ordering
-                return Optional.empty();
-            }
-        }
-        // we exited the loop : all tasks have been scheduled successfully
-        return Optional.of(schedule);
+        return toSchedule(new ScheduleDecoder(instance));
+    }
+
+    /** Converts this resource order into a schedule, using the scratch buffers of the given decoder.
+     *
+     * Callers that decode many resource orders of the same instance should keep a decoder around and use
+     * this method to avoid allocating new buffers on every call.
+     */
+    public Optional<Schedule> toSchedule(ScheduleDecoder decoder) {
+        return decoder.decode(this);
+    }
+
+    /** Converts this resource order into an active schedule, resolving the conflicts of the Giffler and Thompson algorithm
+     * in the order it specifies. The result is always valid. */
+    public Schedule toActiveSchedule() {
+        return new ActiveScheduleBuilder(instance).build(ActiveScheduleBuilder.following(this));
     }
 
     /** Creates an exact copy of this resource order.
@@ -179,7 +180,7 @@ public final class ResourceOrder extends Encoding {
             s.append("Machine ").append(m).append(" : ");
             for(int j=0; j<instance.numJobs; j++)
             {
-                s.append(tasksByMachine[m][j]).append(" ; ");
+                s.append(getTaskOfMachine(m, j)).append(" ; ");
             }
             s.append("\n");
         }
@@ -192,7 +193,7 @@ public final class ResourceOrder extends Encoding {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ResourceOrder that = (ResourceOrder) o;
-        return Arrays.deepEquals(tasksByMachine, that.tasksByMachine) && Arrays.equals(nextFreeSlot, that.nextFreeSlot);
+        return Arrays.equals(tasksByMachine, that.tasksByMachine) && Arrays.equals(nextFreeSlot, that.nextFreeSlot);
     }
 
     @Override
@@ -3,7 +3,6 @@ package jobshop.encodings;
 import jobshop.Instance;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /** Direct encoding of the solution to JobShop problem.
@@ -12,23 +11,56 @@ import java.util.stream.IntStream;
  */
 public class Schedule extends Encoding {
 
-    // start times of each job and task
-    // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
-    final int[][] times;
+    // start and end times of each task, by task identifier (job * numTasks + task)
+    // start[job * numTasks + i] is the start time of task (j,i) : i^th task of the j^th job
+    final int[] start;
+    final int[] end;
+
+    // for each task identifier, the task whose end determines its start time
+    // (-1 if the task starts at time 0). Recorded by the decoder, null when unknown (e.g. after setStartTime).
+    int[] predecessors;
+
+    // makespan of the schedule, -1 when it must be recomputed (e.g. after setStartTime)
+    private int makespan;
 
     /** Creates a new schedule for the given instance where all start times are uninitialized. */
     public Schedule(Instance instance) {
         super(instance);
-        this.times = new int[instance.numJobs][];
-        for(int j = 0; j < instance.numJobs ; j++) {
-            this.times[j] = new int[instance.numTasks];
+        int numTasks = instance.numJobs * instance.numTasks;
+        this.start = new int[numTasks];
+        this.end = new int[numTasks];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                end[instance.taskId(job, task)] = instance.duration(job, task);
+            }
         }
+        this.makespan = -1;
     }
 
+    /** Overwrites all start times with those computed by a decoder.
+     *
+     * @param startTime start time of each task, by task identifier
+     * @param predecessor for each task, the task whose end determines its start time (-1 if none)
+     * @param makespan makespan of the decoded schedule
+     */
+    void fill(int[] startTime, int[] predecessor, int makespan) {
+        System.arraycopy(startTime, 0, start, 0, start.length);
+        for(int job = 0, id = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++, id++) {
+                end[id] = startTime[id] + instance.duration(job, task);
+            }
+        }
+        if(predecessors == null) {
+            predecessors = predecessor.clone();
+        } else {
+            System.arraycopy(predecessor, 0, predecessors, 0, predecessors.length);
+        }
+        this.makespan = makespan;
+    }
 
     /** Start time of the given task. */
     public int startTime(int job, int task) {
-        return times[job][task];
+        return start[instance.taskId(job, task)];
     }
 
     /** Start time of the given task. */
@@ -38,7 +70,7 @@ public class Schedule extends Encoding {
 
     /** End time of the given task. */
     public int endTime(int job, int task) {
-        return startTime(job, task) + instance.duration(job, task);
+        return end[instance.taskId(job, task)];
     }
 
     /** End time of the given task. */
@@ -48,49 +80,36 @@ public class Schedule extends Encoding {
 
     /** Sets the start time of the given task. */
     public void setStartTime(int job, int task, int startTime) {
-        times[job][task] = startTime;
+        int id = instance.taskId(job, task);
+        start[id] = startTime;
+        end[id] = startTime + instance.duration(job, task);
+        predecessors = null;
+        makespan = -1;
     }
 
     /** Returns true if this schedule is valid (no constraint is violated) */
     public boolean isValid() {
-        for(int j = 0; j<instance.numJobs ; j++) {
-            for(int t = 1; t< instance.numTasks ; t++) {
-                if(startTime(j, t-1) + instance.duration(j, t-1) > startTime(j, t))
-                    return false;
-            }
-            for(int t = 0; t< instance.numTasks ; t++) {
-                if(startTime(j, t) < 0)
-                    return false;
-            }
-        }
-
-        for (int machine = 0; machine < instance.numMachines ; machine++) {
-            for(int j1 = 0; j1< instance.numJobs ; j1++) {
-                int t1 = instance.task_with_machine(j1, machine);
-                for(int j2 = j1+1; j2< instance.numJobs ; j2++) {
-                    int t2 = instance.task_with_machine(j2, machine);
-
-                    boolean t1_first = endTime(j1, t1) <= startTime(j2, t2);
-                    boolean t2_first = endTime(j2, t2) <= startTime(j1, t1);
-
-                    if(!t1_first && !t2_first)
-                        return false;
-                }
-            }
-        }
+        return firstViolation().isEmpty();
+    }
 
-        return true;
+    /** Returns the first constraint violated by this schedule, or an empty optional if the schedule is valid.
+     * See {@link ScheduleValidator}. */
+    public Optional<ScheduleValidator.Violation> firstViolation() {
+        return new ScheduleValidator(instance).firstViolation(this);
     }
 
     /** Makespan of the solution.
      * The makespan is the end time of the latest finishing task.
      */
     public int makespan() {
-        int max = -1;
-        for(int j = 0; j< instance.numJobs ; j++) {
-            max = Math.max(max, endTime(j, instance.numTasks-1));
+        if(makespan < 0) {
+            int max = -1;
+            for(int j = 0; j< instance.numJobs ; j++) {
+                max = Math.max(max, endTime(j, instance.numTasks-1));
+            }
+            makespan = max;
         }
-        return max;
+        return makespan;
     }
 
     /** Returns true if the given sequence of task is a critical path of the schedule. */
@@ -113,51 +132,66 @@ public class Schedule extends Encoding {
      * @return A sequence of task along a critical path.
      */
     public List<Task> criticalPath() {
-        // select task with greatest end time
-        Task ldd = IntStream.range(0, instance.numJobs)
-                .mapToObj(j -> new Task(j, instance.numTasks-1))
-                .max(Comparator.comparing(this::endTime))
-                .get();
-        assert endTime(ldd) == makespan();
-
-        // list that will contain the critical path.
-        // we construct it from the end, starting with the
-        // task that finishes last
-        LinkedList<Task> path = new LinkedList<>();
-        path.add(0,ldd);
-
-        // keep adding tasks to the path until the first task in the path
-        // starts a time 0
-        while(startTime(path.getFirst()) != 0) {
-            Task cur = path.getFirst();
-            int machine = instance.machine(cur.job, cur.task);
+        CriticalPath buffer = new CriticalPath(instance);
+        criticalPath(buffer);
+        List<Task> path = new ArrayList<>(buffer.length());
+        for(int i = 0 ; i < buffer.length() ; i++) {
+            path.add(instance.task(buffer.task(i)));
+        }
+        assert isCriticalPath(path);
+        return path;
+    }
 
-            // will contain the task that was delaying the start
-            // of our current task
-            Optional<Task> latestPredecessor = Optional.empty();
+    /** Computes a critical path of the schedule and its blocks, and stores them in the given buffer.
+     *
+     * The path is obtained by following, from the task that finishes last, the predecessor links recorded
+     * when the schedule was decoded. No object is allocated.
+     */
+    public void criticalPath(CriticalPath out) {
+        // select task with greatest end time
+        int last = -1;
+        int lastEnd = -1;
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            int id = instance.taskId(job, instance.numTasks-1);
+            if(end[id] > lastEnd) {
+                lastEnd = end[id];
+                last = id;
+            }
+        }
 
-            if(cur.task > 0) {
-                // our current task has a predecessor on the job
-                Task predOnJob = new Task(cur.job, cur.task -1);
+        // follow the predecessor links back to a task starting at time 0
+        int length = 0;
+        for(int cur = last ; cur != -1 ; cur = predecessorOnPath(cur)) {
+            out.tasks[length++] = cur;
+        }
+        out.length = length;
+        out.reverseAndSplit();
+    }
 
-                // if it was the delaying task, save it to predecessor
-                if(endTime(predOnJob) == startTime(cur))
-                    latestPredecessor = Optional.of(predOnJob);
-            }
-            if(latestPredecessor.isEmpty()) {
-                // no latest predecessor found yet, look among tasks executing on the same machine
-                latestPredecessor = IntStream.range(0, instance.numJobs)
-                        .mapToObj(j -> new Task(j, instance.task_with_machine(j, machine)))
-                        .filter(t -> endTime(t) == startTime(cur))
-                        .findFirst();
+    /** Returns the task that ends exactly when the given task starts (-1 if the task starts at time 0). */
+    private int predecessorOnPath(int taskId) {
+        if(predecessors != null) {
+            return predecessors[taskId];
+        }
+        // the schedule was not built by the decoder: look for the predecessor on the job, then on the machine
+        int job = instance.jobOf(taskId);
+        int task = instance.taskOf(taskId);
+        int begin = start[taskId];
+        if(begin == 0) {
+            return -1;
+        }
+        if(task > 0 && end[taskId-1] == begin) {
+            return taskId - 1;
+        }
+        int machine = instance.machine(job, task);
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            int t = instance.task_with_machine(j, machine);
+            if(j != job && end[instance.taskId(j, t)] == begin) {
+                return instance.taskId(j, t);
             }
-            // at this point we should have identified a latest predecessor, either on the job or on the machine
-            assert latestPredecessor.isPresent() && endTime(latestPredecessor.get()) == startTime(cur);
-            // insert predecessor at the beginning of the path
-            path.add(0, latestPredecessor.get());
         }
-        assert isCriticalPath(path);
-        return path;
+        // no task delays this one: the schedule is not semi-active and the path stops here
+        return -1;
     }
 
     @Override
@@ -248,20 +282,11 @@ public class Schedule extends Encoding {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Schedule schedule = (Schedule) o;
-        if (times.length != schedule.times.length) {
-            return false;
-        }
-        for(int i=0; i<times.length; i++) {
-            if (!Arrays.equals(times[i], schedule.times[i])) {
-                return false;
-            }
-        }
-        return true;
+        return Arrays.equals(start, schedule.start);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.stream(times).map(Arrays::hashCode).collect(Collectors.toList()).hashCode();
-
+        return Arrays.hashCode(start);
     }
 }
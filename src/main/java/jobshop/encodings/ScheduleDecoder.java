@@ -0,0 +1,201 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Optional;
+
+/** Converts resource orders into schedules where every task starts as early as possible (semi-active schedules).
+ *
+ * The decoder runs Kahn's algorithm over the disjunctive graph of the resource order: each task has an in-degree
+ * counting its unscheduled predecessors on its job and on its machine, and a queue holds the tasks whose
+ * predecessors have all been placed. Each task is placed in constant time, and the resource order contains a cycle
+ * if the queue runs dry before all tasks have been placed.
+ *
+ * A decoder holds scratch buffers sized for one instance and can be reused for any number of resource orders of that
+ * instance, so that repeated decoding does not allocate (apart from the returned schedule for {@link #decode}).
+ * A decoder is not thread-safe: concurrent threads should each use their own.
+ *
+ * Tasks are identified by their number job * numTasks + task (see {@link Instance#taskId(int, int)}).
+ */
+public final class ScheduleDecoder {
+
+    /** Instance of the resource orders to decode. */
+    public final Instance instance;
+
+    /** Duration of each task. */
+    private final int[] duration;
+
+    /** Task executed just before/after each task on its machine (-1 if none). */
+    private final int[] machinePred;
+    private final int[] machineSucc;
+
+    /** Number of predecessors of each task that have not been placed yet. */
+    private final int[] inDegree;
+
+    /** Tasks in the order in which they were placed. Also used as the queue of Kahn's algorithm. */
+    private final int[] topologicalOrder;
+
+    /** Start time of each task. */
+    private final int[] startTime;
+
+    /** For each task, the predecessor (on its job or machine) whose end time determines its start time, -1 if none. */
+    private final int[] predecessor;
+
+    /** Makespan of the last decoded resource order. */
+    private int makespan;
+
+    /** Creates a new decoder with buffers sized for the given instance. */
+    public ScheduleDecoder(Instance instance) {
+        this.instance = instance;
+        int numTasks = instance.numJobs * instance.numTasks;
+        this.duration = new int[numTasks];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                duration[instance.taskId(job, task)] = instance.duration(job, task);
+            }
+        }
+        this.machinePred = new int[numTasks];
+        this.machineSucc = new int[numTasks];
+        this.inDegree = new int[numTasks];
+        this.topologicalOrder = new int[numTasks];
+        this.startTime = new int[numTasks];
+        this.predecessor = new int[numTasks];
+    }
+
+    /** Computes the earliest start time of all tasks of the resource order, without building a schedule.
+     *
+     * The result can then be queried with {@link #startTime(int)}, {@link #makespan()} and
+     * {@link #topologicalOrder(int)}.
+     *
+     * @return False if the resource order is incomplete or contains a cycle (it does not represent a valid solution).
+     */
+    public boolean run(ResourceOrder order) {
+        assert order.instance == instance;
+        final int numJobs = instance.numJobs;
+        final int numTasks = instance.numTasks;
+        final int numAll = duration.length;
+
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            if(order.nextFreeSlot[m] < numJobs) {
+                // some tasks were never added to this machine
+                return false;
+            }
+            int prev = -1;
+            for(int i = 0 ; i < numJobs ; i++) {
+                int t = order.tasksByMachine[m * numJobs + i];
+                machinePred[t] = prev;
+                machineSucc[t] = -1;
+                if(prev != -1) {
+                    machineSucc[prev] = t;
+                }
+                prev = t;
+            }
+        }
+
+        // the topological order array doubles as the queue: tasks in [next, queueEnd) are ready to be placed
+        int queueEnd = 0;
+        for(int t = 0 ; t < numAll ; t++) {
+            inDegree[t] = (t % numTasks == 0 ? 0 : 1) + (machinePred[t] == -1 ? 0 : 1);
+            startTime[t] = 0;
+            predecessor[t] = -1;
+            if(inDegree[t] == 0) {
+                topologicalOrder[queueEnd++] = t;
+            }
+        }
+        makespan = 0;
+        for(int next = 0 ; next < queueEnd ; next++) {
+            int t = topologicalOrder[next];
+            int end = startTime[t] + duration[t];
+            makespan = Math.max(makespan, end);
+
+            // release the successor on the job
+            if(t % numTasks != numTasks - 1) {
+                int js = t + 1;
+                if(end > startTime[js]) {
+                    startTime[js] = end;
+                    predecessor[js] = t;
+                }
+                if(--inDegree[js] == 0)
+                    topologicalOrder[queueEnd++] = js;
+            }
+            // release the successor on the machine
+            int ms = machineSucc[t];
+            if(ms != -1) {
+                if(end > startTime[ms]) {
+                    startTime[ms] = end;
+                    predecessor[ms] = t;
+                }
+                if(--inDegree[ms] == 0)
+                    topologicalOrder[queueEnd++] = ms;
+            }
+        }
+        // if the queue ran dry before all tasks were placed, the remaining ones are part of a cycle
+        return queueEnd == numAll;
+    }
+
+    /** Converts the resource order into a new schedule.
+     *
+     * @return An empty optional if the resource order does not represent a valid solution.
+     */
+    public Optional<Schedule> decode(ResourceOrder order) {
+        Schedule schedule = new Schedule(instance);
+        return decodeInto(order, schedule) ? Optional.of(schedule) : Optional.empty();
+    }
+
+    /** Converts the resource order into a schedule, overwriting the start times of the given one.
+     *
+     * @return False if the resource order does not represent a valid solution, in which case the target schedule
+     *         is left untouched.
+     */
+    public boolean decodeInto(ResourceOrder order, Schedule target) {
+        if(!run(order)) {
+            return false;
+        }
+        // the predecessor links make the critical path cheap to extract
+        target.fill(startTime, predecessor, makespan);
+        return true;
+    }
+
+    /** Computes a critical path of the last decoded resource order and its blocks, and stores them in the given buffer.
+     * This is the same path as {@link Schedule#criticalPath(CriticalPath)} on the decoded schedule, obtained without
+     * building it. No object is allocated. */
+    public void criticalPath(CriticalPath out) {
+        // select task with greatest end time
+        int last = -1;
+        int lastEnd = -1;
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            int id = instance.taskId(job, instance.numTasks-1);
+            if(startTime[id] + duration[id] > lastEnd) {
+                lastEnd = startTime[id] + duration[id];
+                last = id;
+            }
+        }
+        out.follow(last, predecessor);
+    }
+
+    /** Start time of the given task in the last decoded resource order. */
+    public int startTime(int taskId) {
+        return startTime[taskId];
+    }
+
+    /** Makespan of the last decoded resource order. */
+    public int makespan() {
+        return makespan;
+    }
+
+    /** The i-th task placed while decoding the last resource order.
+     * Tasks appear in a topological order of the disjunctive graph: every task comes after its predecessors. */
+    public int topologicalOrder(int i) {
+        return topologicalOrder[i];
+    }
+
+    /** Task executed just before the given one on its machine in the last decoded resource order (-1 if none). */
+    public int machinePredecessor(int taskId) {
+        return machinePred[taskId];
+    }
+
+    /** Task executed just after the given one on its machine in the last decoded resource order (-1 if none). */
+    public int machineSuccessor(int taskId) {
+        return machineSucc[taskId];
+    }
+}
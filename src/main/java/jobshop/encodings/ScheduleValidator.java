@@ -0,0 +1,107 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Checks that a schedule respects all constraints of its instance.
+ *
+ * The tasks of each machine are sorted once by start time, so that only consecutive tasks need to be compared for
+ * overlaps: a schedule is checked in O(N log J) for N tasks and J jobs.
+ *
+ * A validator holds a scratch buffer sized for one instance and can check any number of schedules of that instance.
+ * A validator is not thread-safe.
+ */
+public final class ScheduleValidator {
+
+    /** The kinds of constraints that a schedule may violate. */
+    public enum Kind {
+        /** A task starts before time 0. */
+        NEGATIVE_START,
+        /** A task starts before the end of the previous task of its job. */
+        JOB_PRECEDENCE,
+        /** Two tasks overlap on their machine. */
+        MACHINE_OVERLAP
+    }
+
+    /** A violated constraint, between one or two tasks. */
+    public static final class Violation {
+        public final Kind kind;
+        /** Task violating the constraint. For precedence and overlap, the one that starts first. */
+        public final Task first;
+        /** Other task of the constraint, null for a negative start. */
+        public final Task second;
+        /** Description of the violation, with the times of the tasks. */
+        public final String message;
+
+        Violation(Kind kind, Task first, Task second, String message) {
+            this.kind = kind;
+            this.first = first;
+            this.second = second;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+
+    /** Instance of the schedules to check. */
+    public final Instance instance;
+
+    /** Tasks of a machine, as (start time << 32 | job), sorted to order the tasks by start time. */
+    private final long[] byStart;
+
+    /** Creates a new validator for the schedules of the given instance. */
+    public ScheduleValidator(Instance instance) {
+        this.instance = instance;
+        this.byStart = new long[instance.numJobs];
+    }
+
+    /** Returns the first violated constraint of the schedule, or an empty optional if the schedule is valid.
+     * Job constraints are checked before machine constraints. */
+    public Optional<Violation> firstViolation(Schedule schedule) {
+        assert schedule.instance == instance;
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                if(schedule.startTime(job, task) < 0) {
+                    return Optional.of(new Violation(Kind.NEGATIVE_START, new Task(job, task), null,
+                            "task (" + job + "," + task + ") starts at " + schedule.startTime(job, task)));
+                }
+                if(task > 0 && schedule.endTime(job, task - 1) > schedule.startTime(job, task)) {
+                    return Optional.of(new Violation(Kind.JOB_PRECEDENCE,
+                            new Task(job, task - 1), new Task(job, task),
+                            "task (" + job + "," + task + ") starts at " + schedule.startTime(job, task)
+                                    + " before the end of task (" + job + "," + (task - 1) + ") at "
+                                    + schedule.endTime(job, task - 1)));
+                }
+            }
+        }
+
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            for(int job = 0 ; job < instance.numJobs ; job++) {
+                int task = instance.task_with_machine(job, machine);
+                byStart[job] = ((long) schedule.startTime(job, task) << 32) | job;
+            }
+            Arrays.sort(byStart);
+            // once sorted by start time, a task can only overlap with the next one if it overlaps with any later one
+            for(int i = 1 ; i < byStart.length ; i++) {
+                int before = (int) byStart[i - 1];
+                int after = (int) byStart[i];
+                int taskBefore = instance.task_with_machine(before, machine);
+                int taskAfter = instance.task_with_machine(after, machine);
+                if(schedule.endTime(before, taskBefore) > schedule.startTime(after, taskAfter)) {
+                    return Optional.of(new Violation(Kind.MACHINE_OVERLAP,
+                            new Task(before, taskBefore), new Task(after, taskAfter),
+                            "tasks (" + before + "," + taskBefore + ") [" + schedule.startTime(before, taskBefore)
+                                    + "," + schedule.endTime(before, taskBefore) + ") and (" + after + "," + taskAfter
+                                    + ") [" + schedule.startTime(after, taskAfter) + ","
+                                    + schedule.endTime(after, taskAfter) + ") overlap on machine " + machine));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
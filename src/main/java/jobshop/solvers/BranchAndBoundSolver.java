@@ -0,0 +1,365 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.CriticalPath;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleDecoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** An exact solver: a branch and bound on the disjunctive arcs of the critical path, in the spirit of Balas.
+ *
+ * A node of the search tree is a complete resource order together with a set of fixed arcs: pairs of tasks of a machine
+ * whose relative order is imposed. The node represents all the solutions that respect the fixed arcs. Its resource
+ * order is one of them, decoded to update the upper bound.
+ * Any solution of the node that is better than this one must reverse at least one arc of its critical path. The node
+ * is therefore split on an arc (u, v) of the critical path that is not fixed yet: one child fixes u before v and keeps
+ * the resource order, the other one swaps u and v (which never creates a cycle) and fixes v before u.
+ * When all arcs of the critical path are fixed, the node contains no better solution.
+ *
+ * A node is pruned when its lower bound reaches the upper bound. The lower bound is the Jackson preemptive bound of
+ * {@link LowerBound}, with the heads and tails of the graph made of the job arcs and the fixed arcs.
+ *
+ * The initial upper bound is the solution of a base solver, e.g. a taboo search. The tree is explored depth first by
+ * the workers of a fork-join pool: a worker hands its children to the pool (where idle workers steal them) as long
+ * as few tasks are waiting, and keeps them on its own stack otherwise. The upper bound is shared in an atomic integer.
+ *
+ * The search stops at the deadline, returning the best solution found (which is then not proven optimal).
+ */
+public class BranchAndBoundSolver implements Solver {
+
+    /** Number of waiting tasks of a worker under which its children are handed to the pool. */
+    static final int SURPLUS_THRESHOLD = 2;
+
+    final Solver baseSolver;
+    final int parallelism;
+
+    /** Creates a new branch and bound solver.
+     *
+     * @param baseSolver A solver to provide the initial solution, whose makespan is the initial upper bound.
+     * @param parallelism number of threads exploring the search tree
+     */
+    public BranchAndBoundSolver(Solver baseSolver, int parallelism) {
+        if(parallelism < 1) {
+            throw new RuntimeException("A branch and bound needs at least one thread");
+        }
+        this.baseSolver = baseSolver;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean runsOwnThreads() {
+        return true;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline) {
+        return solve(instance, deadline, ImprovementListener.NONE);
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
+        long startTime = System.currentTimeMillis();
+
+        /* Borne supérieure initiale donnée par le solveur de base */
+        Optional<Schedule> init = this.baseSolver.solve(instance, deadline);
+        assert init.isPresent();
+        Search search = new Search(instance, deadline, startTime, listener, new ResourceOrder(init.get()),
+                init.get().makespan());
+        listener.improved(System.currentTimeMillis() - startTime, 0, search.upperBound.get());
+
+        /* Inutile d'explorer l'arbre si la solution initiale atteint déjà la borne inférieure */
+        if(!search.stopped()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new Explore(search, new Node(search.best.copy(), null)));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        return search.best.toSchedule();
+    }
+
+    /** A fixed arc: task <code>from</code> is executed before task <code>to</code> on their machine.
+     * The fixed arcs of a node form a linked list shared with its ancestors. */
+    private static final class Arc {
+        final int from;
+        final int to;
+        final Arc next;
+
+        Arc(int from, int to, Arc next) {
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+    }
+
+    /** A node of the search tree: a resource order that respects the fixed arcs. */
+    private static final class Node {
+        final ResourceOrder order;
+        final Arc fixed;
+
+        Node(ResourceOrder order, Arc fixed) {
+            this.order = order;
+            this.fixed = fixed;
+        }
+    }
+
+    /** State shared by the workers during one call to solve. */
+    private static final class Search {
+        final Instance instance;
+        final long deadline;
+        final long startTime;
+        final ImprovementListener listener;
+
+        /** Makespan of the best solution found. */
+        final AtomicInteger upperBound;
+
+        /** Lower bound of the instance: the search stops if the upper bound reaches it. */
+        final int lowerBound;
+
+        /** Best solution found. Guarded by the search. */
+        ResourceOrder best;
+
+        /** Number of nodes explored, for the iteration of the reported improvements. */
+        final AtomicInteger nodes = new AtomicInteger();
+
+        /** Set when the deadline is reached, to stop all workers. */
+        volatile boolean timeout = false;
+
+        /** Scratch buffers of each worker thread. */
+        final ThreadLocal<Worker> workers;
+
+        Search(Instance instance, long deadline, long startTime, ImprovementListener listener, ResourceOrder initial,
+               int makespan) {
+            this.instance = instance;
+            this.deadline = deadline;
+            this.startTime = startTime;
+            this.listener = listener;
+            this.best = initial;
+            this.upperBound = new AtomicInteger(makespan);
+            this.lowerBound = new LowerBound(instance).value();
+            this.workers = ThreadLocal.withInitial(() -> new Worker(instance));
+        }
+
+        /** Returns true if the search must stop: at the deadline, or when the best solution is proven optimal. */
+        boolean stopped() {
+            if(!timeout && System.currentTimeMillis() >= deadline) {
+                timeout = true;
+            }
+            return timeout || upperBound.get() <= lowerBound;
+        }
+
+        /** Records the solution if it improves the upper bound. */
+        synchronized void improve(ResourceOrder order, int makespan) {
+            if(makespan < upperBound.get()) {
+                best = order.copy();
+                upperBound.set(makespan);
+                listener.improved(System.currentTimeMillis() - startTime, nodes.get(), makespan);
+            }
+        }
+    }
+
+    /** Scratch buffers used by one thread to evaluate nodes. */
+    private static final class Worker {
+        final Instance instance;
+        final ScheduleDecoder decoder;
+        final Schedule schedule;
+        final CriticalPath path;
+        final LowerBound bound;
+
+        /** Heads and tails of the tasks in the graph of the job arcs and fixed arcs. */
+        final int[] head;
+        final int[] tail;
+
+        /** Fixed arcs of the node, as linked lists of predecessors and successors of each task. */
+        final int[] firstPred;
+        final int[] firstSucc;
+        final int[] arcFrom;
+        final int[] arcTo;
+        final int[] nextPred;
+        final int[] nextSucc;
+
+        /** isFixed[arc(u, v)] is true if the arc from u to v is fixed in the node. Arcs only link tasks of the same
+         * machine, so they are indexed by machine and jobs, as in {@link TabooMemory}, in numMachines * numJobs²
+         * entries rather than one per pair of tasks. */
+        final boolean[] isFixed;
+
+        Worker(Instance instance) {
+            this.instance = instance;
+            int numTasks = instance.numJobs * instance.numTasks;
+            int maxArcs = instance.numMachines * instance.numJobs * (instance.numJobs - 1) / 2;
+            this.decoder = new ScheduleDecoder(instance);
+            this.schedule = new Schedule(instance);
+            this.path = new CriticalPath(instance);
+            this.bound = new LowerBound(instance);
+            this.head = new int[numTasks];
+            this.tail = new int[numTasks];
+            this.firstPred = new int[numTasks];
+            this.firstSucc = new int[numTasks];
+            this.arcFrom = new int[maxArcs];
+            this.arcTo = new int[maxArcs];
+            this.nextPred = new int[maxArcs];
+            this.nextSucc = new int[maxArcs];
+            this.isFixed = new boolean[instance.numMachines * instance.numJobs * instance.numJobs];
+        }
+
+        /** Index in isFixed of the arc from u to v, two tasks of the same machine. */
+        int arc(int u, int v) {
+            int machine = instance.machine(instance.jobOf(u), instance.taskOf(u));
+            return (machine * instance.numJobs + instance.jobOf(u)) * instance.numJobs + instance.jobOf(v);
+        }
+
+        /** Loads the fixed arcs of a node. */
+        void load(Arc fixed) {
+            Arrays.fill(firstPred, -1);
+            Arrays.fill(firstSucc, -1);
+            int numArcs = 0;
+            for(Arc arc = fixed ; arc != null ; arc = arc.next, numArcs++) {
+                arcFrom[numArcs] = arc.from;
+                arcTo[numArcs] = arc.to;
+                nextPred[numArcs] = firstPred[arc.to];
+                firstPred[arc.to] = numArcs;
+                nextSucc[numArcs] = firstSucc[arc.from];
+                firstSucc[arc.from] = numArcs;
+                isFixed[arc(arc.from, arc.to)] = true;
+            }
+        }
+
+        /** Forgets the fixed arcs of a node. */
+        void unload(Arc fixed) {
+            for(Arc arc = fixed ; arc != null ; arc = arc.next) {
+                isFixed[arc(arc.from, arc.to)] = false;
+            }
+        }
+
+        /** Lower bound of the solutions of the node whose resource order was just decoded. The graph of the job
+         * arcs and fixed arcs is a subgraph of the decoded one, so the topological order of the decoder is valid. */
+        int lowerBound() {
+            final int numTasks = instance.numTasks;
+            for(int i = 0 ; i < head.length ; i++) {
+                int t = decoder.topologicalOrder(i);
+                int h = t % numTasks == 0 ? 0 : head[t - 1] + instance.duration(instance.jobOf(t - 1), instance.taskOf(t - 1));
+                for(int a = firstPred[t] ; a != -1 ; a = nextPred[a]) {
+                    int p = arcFrom[a];
+                    h = Math.max(h, head[p] + instance.duration(instance.jobOf(p), instance.taskOf(p)));
+                }
+                head[t] = h;
+            }
+            for(int i = head.length - 1 ; i >= 0 ; i--) {
+                int t = decoder.topologicalOrder(i);
+                int q = t % numTasks == numTasks - 1 ? 0 : tail[t + 1] + instance.duration(instance.jobOf(t + 1), instance.taskOf(t + 1));
+                for(int a = firstSucc[t] ; a != -1 ; a = nextSucc[a]) {
+                    int s = arcTo[a];
+                    q = Math.max(q, tail[s] + instance.duration(instance.jobOf(s), instance.taskOf(s)));
+                }
+                tail[t] = q;
+            }
+            return bound.jacksonBound(head, tail);
+        }
+    }
+
+    /** Explores the subtree of a node, handing some of the children to the pool. Never serialized. */
+    @SuppressWarnings("serial")
+    private static final class Explore extends RecursiveAction {
+        final Search search;
+        final Node root;
+
+        Explore(Search search, Node root) {
+            this.search = search;
+            this.root = root;
+        }
+
+        @Override
+        protected void compute() {
+            Worker worker = search.workers.get();
+            ArrayDeque<Node> stack = new ArrayDeque<>();
+            List<Explore> forked = new ArrayList<>();
+            stack.push(root);
+            while(!stack.isEmpty() && !search.stopped()) {
+                Node node = stack.pop();
+                search.nodes.incrementAndGet();
+                worker.load(node.fixed);
+                try {
+                    branch(worker, node, stack, forked);
+                } finally {
+                    worker.unload(node.fixed);
+                }
+            }
+            for(Explore task : forked) {
+                task.join();
+            }
+        }
+
+        /** Evaluates the node and adds its children, if any, to the stack or to the pool. */
+        private void branch(Worker worker, Node node, ArrayDeque<Node> stack, List<Explore> forked) {
+            Instance instance = search.instance;
+            ResourceOrder order = node.order;
+            boolean valid = worker.decoder.decodeInto(order, worker.schedule);
+            assert valid;
+            int makespan = worker.decoder.makespan();
+            if(makespan < search.upperBound.get()) {
+                search.improve(order, makespan);
+            }
+
+            /* Élaguer le nœud si sa borne inférieure atteint la borne supérieure */
+            if(worker.lowerBound() >= search.upperBound.get()) {
+                return;
+            }
+
+            /* Choisir un arc non fixé du chemin critique, de préférence à l'extrémité d'un bloc */
+            CriticalPath path = worker.path;
+            worker.schedule.criticalPath(path);
+            int u = -1;
+            for(int pass = 0 ; pass < 2 && u == -1 ; pass++) {
+                for(int b = 0 ; b < path.numBlocks() && u == -1 ; b++) {
+                    int first = path.blockStart(b);
+                    int last = path.blockEnd(b);
+                    for(int i = first ; i < last ; i++) {
+                        boolean blockEnd = i == first || i == last - 1;
+                        if((pass == 1 || blockEnd)
+                                && !worker.isFixed[worker.arc(path.task(i), path.task(i + 1))]) {
+                            u = path.task(i);
+                            break;
+                        }
+                    }
+                }
+            }
+            if(u == -1) {
+                /* tous les arcs du chemin critique sont fixés : aucune solution du nœud n'est meilleure */
+                return;
+            }
+            int machine = instance.machine(instance.jobOf(u), instance.taskOf(u));
+            int position = order.getIndexOfTaskInMachine(u);
+            int v = order.getTaskIdOfMachine(machine, position + 1);
+
+            /* Fils qui inverse l'arc (exploré en premier), et fils qui le fixe */
+            ResourceOrder swapped = order.copy();
+            swapped.swapTasks(machine, position, position + 1);
+            Node reversed = new Node(swapped, new Arc(v, u, node.fixed));
+            Node kept = new Node(order, new Arc(u, v, node.fixed));
+            push(kept, stack, forked);
+            push(reversed, stack, forked);
+        }
+
+        /** Hands the node to the pool if few tasks are waiting, or keeps it on the stack of this worker. */
+        private void push(Node child, ArrayDeque<Node> stack, List<Explore> forked) {
+            if(getSurplusQueuedTaskCount() < SURPLUS_THRESHOLD) {
+                Explore task = new Explore(search, child);
+                task.fork();
+                forked.add(task);
+            } else {
+                stack.push(child);
+            }
+        }
+    }
+}
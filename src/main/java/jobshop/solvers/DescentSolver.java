@@ -1,18 +1,40 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.CriticalPath;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleDecoder;
 import jobshop.solvers.neighborhood.Neighborhood;
+import jobshop.solvers.neighborhood.Nowicki;
+import jobshop.solvers.neighborhood.SwapEvaluator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-/** An empty shell to implement a descent solver. */
+/** A descent solver: starting from a greedy solution, it repeatedly moves to the best neighbor until none improves
+ * the current solution, the deadline is reached or an optional iteration budget is exhausted.
+ *
+ * Neighbors are ranked by the estimate of their makespan, which is a lower bound of it. Only the neighbors whose
+ * estimate is below the best makespan found so far in the iteration are rebuilt; among those with the smallest
+ * makespan, the first one in the ranking is selected. With a parallelism greater than one, all the neighbors whose
+ * estimate is below the current makespan are rebuilt concurrently on a fork-join pool, each worker using its own copy
+ * of the current solution and its own decoder. The selection rule is the same, so the result is the same as with a
+ * sequential run.
+ */
 public class DescentSolver implements Solver {
 
     final Neighborhood neighborhood;
     final Solver baseSolver;
+    final int parallelism;
+    final int maxIter;
 
     /** Creates a new descent solver with a given neighborhood and a solver for the initial solution.
      *
@@ -20,39 +42,196 @@ public class DescentSolver implements Solver {
      * @param baseSolver A solver to provide the initial solution.
      */
     public DescentSolver(Neighborhood neighborhood, Solver baseSolver) {
+        this(neighborhood, baseSolver, 1);
+    }
+
+    /** Creates a new descent solver that evaluates the neighbors of each iteration on several threads.
+     *
+     * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution.
+     * @param parallelism Number of threads used to evaluate the neighbors (1 to evaluate them sequentially).
+     */
+    public DescentSolver(Neighborhood neighborhood, Solver baseSolver, int parallelism) {
+        this(neighborhood, baseSolver, parallelism, Integer.MAX_VALUE);
+    }
+
+    /** Creates a new descent solver that stops after a given number of iterations, even if it could still improve.
+     *
+     * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution.
+     * @param parallelism Number of threads used to evaluate the neighbors (1 to evaluate them sequentially).
+     * @param maxIter Maximal number of iterations (Integer.MAX_VALUE to only stop at a local minimum or at the deadline).
+     */
+    public DescentSolver(Neighborhood neighborhood, Solver baseSolver, int parallelism, int maxIter) {
         this.neighborhood = neighborhood;
         this.baseSolver = baseSolver;
+        this.parallelism = parallelism;
+        this.maxIter = maxIter;
+    }
+
+    @Override
+    public boolean runsOwnThreads() {
+        return parallelism > 1;
     }
 
     @Override
     public Optional<Schedule> solve(Instance instance, long deadline) {
+        return solve(instance, deadline, ImprovementListener.NONE);
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
+        long startTime = System.currentTimeMillis();
+
         /* Générer une solution réalisable avec une heuristique gloutonne  */
         Optional<Schedule> initSchedule = this.baseSolver.solve(instance, deadline);
         assert initSchedule.isPresent();
         ResourceOrder order = new ResourceOrder(initSchedule.get());
         assert order.toSchedule().isPresent();
 
-        while (true) {
-            /* Générer la liste des ResourceOrders pour les différents voisinages */
-            List<ResourceOrder> orderList = this.neighborhood.generateNeighbors(order);
-            ResourceOrder bestOrder = orderList.get(0).copy();
-            assert bestOrder.toSchedule().isPresent();
+        SwapEvaluator evaluator = new SwapEvaluator(instance);
+        ScheduleDecoder decoder = new ScheduleDecoder(instance);
+        CriticalPath path = new CriticalPath(instance);
+        ParallelScorer scorer = parallelism > 1 ? new ParallelScorer(order) : null;
+        try {
+            boolean improved = true;
+            int iteration = 0;
+            boolean valid = evaluator.update(order);
+            assert valid;
+            listener.improved(System.currentTimeMillis() - startTime, iteration, evaluator.makespan());
+            /* Arrêter dès que le makespan atteint la borne inférieure : la solution est alors optimale */
+            int lowerBound = new LowerBound(instance).value();
+            while (improved && iteration < maxIter && evaluator.makespan() > lowerBound) {
+                /* Consulter l'horloge toutes les CLOCK_CHECK_PERIOD itérations seulement */
+                if (iteration % CLOCK_CHECK_PERIOD == 0 && System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                iteration++;
+
+                int makespan = evaluator.makespan();
 
-            /* Sélectionner la solution voisine améliorante dans orderList */
-            for(ResourceOrder ord : orderList) {
-                if (ord.toSchedule().isPresent() && ord.toSchedule().get().makespan() < bestOrder.toSchedule().get().makespan()) {
-                    bestOrder = ord.copy();
+                /* Classer les voisins selon l'estimation de leur makespan (à estimation égale, selon leur indice),
+                codés par estimation << 32 | indice */
+                List<Nowicki.Swap> swaps = this.neighborhood.allSwaps(order, evaluator, path);
+                long[] ranking = new long[swaps.size()];
+                for (int i = 0; i < swaps.size(); i++) {
+                    ranking[i] = (long) evaluator.estimate(swaps.get(i)) << 32 | i;
                 }
+                Arrays.sort(ranking);
+
+                /* Sélectionner le meilleur voisin (à makespan égal, le premier dans le classement). L'estimation est
+                un minorant du makespan : seuls les voisins dont l'estimation est inférieure au meilleur makespan trouvé
+                jusqu'ici peuvent l'améliorer, et eux seuls sont reconstruits */
+                int bestMakespan = makespan;
+                Nowicki.Swap bestSwap = null;
+                if (scorer != null) {
+                    List<Nowicki.Swap> candidates = new ArrayList<>();
+                    for (long ranked : ranking) {
+                        if ((int) (ranked >>> 32) >= makespan) {
+                            break;
+                        }
+                        candidates.add(swaps.get((int) ranked));
+                    }
+                    int[] makespans = scorer.score(candidates);
+                    for (int c = 0; c < candidates.size(); c++) {
+                        if (makespans[c] < bestMakespan) {
+                            bestMakespan = makespans[c];
+                            bestSwap = candidates.get(c);
+                        }
+                    }
+                } else {
+                    for (long ranked : ranking) {
+                        if ((int) (ranked >>> 32) >= bestMakespan) {
+                            break;
+                        }
+                        /* Le voisin est construit sur place, puis défait */
+                        Nowicki.Swap swap = swaps.get((int) ranked);
+                        this.neighborhood.apply(order, swap);
+                        if (decoder.run(order) && decoder.makespan() < bestMakespan) {
+                            bestMakespan = decoder.makespan();
+                            bestSwap = swap;
+                        }
+                        this.neighborhood.undo(order, swap);
+                    }
+                }
+                improved = bestSwap != null;
+                if (improved) {
+                    this.neighborhood.apply(order, bestSwap);
+                    if (scorer != null) {
+                        scorer.apply(bestSwap);
+                    }
+                    valid = evaluator.update(order);
+                    assert valid;
+                    listener.improved(System.currentTimeMillis() - startTime, iteration, evaluator.makespan());
+                }
+                /* S'arrêter lorsque aucun voisin n'est plus améliorant par rapport à la solution courante */
             }
-            /* S'arrêter lorsque la solution voisine n'est plus améliorante par rapport à la solution sélectionnée à l'itération antérieure */
-            if (bestOrder.toSchedule().get().makespan()<order.toSchedule().get().makespan()) {
-                order = bestOrder.copy();
-            } else {
-                break;
+        } finally {
+            if (scorer != null) {
+                scorer.close();
             }
-//            System.out.println("Makespan : "+ order.toSchedule().get().makespan());
-            /* --> le makespan diminue au cours des itérations */
         }
         return order.toSchedule();
     }
+
+    /** Computes the exact makespan of several neighbors concurrently.
+     *
+     * Each worker owns a copy of the current solution and a decoder: it applies a move on its copy, decodes it and
+     * undoes the move. The copies must be kept in sync with the current solution through {@link #apply}.
+     */
+    private final class ParallelScorer {
+        final ForkJoinPool pool;
+        final ResourceOrder[] orders;
+        final ScheduleDecoder[] decoders;
+
+        ParallelScorer(ResourceOrder current) {
+            this.pool = new ForkJoinPool(parallelism);
+            this.orders = new ResourceOrder[parallelism];
+            this.decoders = new ScheduleDecoder[parallelism];
+            for (int w = 0; w < parallelism; w++) {
+                orders[w] = current.copy();
+                decoders[w] = new ScheduleDecoder(current.instance);
+            }
+        }
+
+        /** Returns the makespan of the neighbor obtained by each move (Integer.MAX_VALUE if invalid).
+         * Worker w evaluates the moves w, w + parallelism, w + 2 * parallelism, ... */
+        int[] score(List<Nowicki.Swap> moves) {
+            int[] makespans = new int[moves.size()];
+            int numWorkers = Math.min(parallelism, moves.size());
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int w = 0; w < numWorkers; w++) {
+                final int worker = w;
+                workers.add(() -> {
+                    ResourceOrder order = orders[worker];
+                    ScheduleDecoder decoder = decoders[worker];
+                    for (int m = worker; m < moves.size(); m += parallelism) {
+                        neighborhood.apply(order, moves.get(m));
+                        makespans[m] = decoder.run(order) ? decoder.makespan() : Integer.MAX_VALUE;
+                        neighborhood.undo(order, moves.get(m));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : pool.invokeAll(workers)) {
+                try {
+                    result.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new RuntimeException("Failed to evaluate the neighborhood", e);
+                }
+            }
+            return makespans;
+        }
+
+        /** Applies the move accepted by the solver on the copies of all workers. */
+        void apply(Nowicki.Swap move) {
+            for (ResourceOrder order : orders) {
+                neighborhood.apply(order, move);
+            }
+        }
+
+        void close() {
+            pool.shutdown();
+        }
+    }
 }
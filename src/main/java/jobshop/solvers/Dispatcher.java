@@ -0,0 +1,156 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.util.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** Dispatching engine of the greedy solvers.
+ *
+ * The engine repeatedly dispatches one of the ready tasks (the first unscheduled task of each job), appending it to
+ * the queue of its machine. Ready tasks are kept in an indexed heap ordered by a {@link PriorityRule}, so that each
+ * dispatch costs O(log J) comparisons. When the rule depends on the earliest start time, the ready tasks of a machine
+ * are moved in the heap when a task is dispatched on this machine, which costs O(k log J) where k is the number of
+ * ready tasks on the machine.
+ *
+ * An engine holds buffers sized for one instance and is not thread-safe.
+ */
+final class Dispatcher {
+
+    final Instance instance;
+
+    /** Priority of the ready tasks. */
+    final PriorityRule rule;
+
+    /** Ready tasks, by slot. Slot s holds the job jobOfSlot[s]: ties between equally prioritary tasks are
+     * broken by slot. */
+    private final IndexedHeap ready;
+    private final int[] jobOfSlot;
+    private final int[] slotOfJob;
+
+    /** Next task to dispatch of each job (numTasks when the job is finished). */
+    private final int[] nextTask;
+
+    /** Time at which each job and each machine become free. */
+    private final int[] jobFree;
+    private final int[] machineFree;
+
+    /** Jobs whose ready task executes on each machine: readyOnMachine[m * numJobs ... m * numJobs + numReady[m] - 1].
+     * Only maintained for rules using the earliest start time. */
+    private final int[] readyOnMachine;
+    private final int[] numReady;
+    private final int[] indexOnMachine;
+
+    Dispatcher(Instance instance, PriorityRule rule) {
+        this.instance = instance;
+        this.rule = rule;
+        this.jobOfSlot = new int[instance.numJobs];
+        this.slotOfJob = new int[instance.numJobs];
+        this.nextTask = new int[instance.numJobs];
+        this.jobFree = new int[instance.numJobs];
+        this.machineFree = new int[instance.numMachines];
+        this.readyOnMachine = new int[instance.numMachines * instance.numJobs];
+        this.numReady = new int[instance.numMachines];
+        this.indexOnMachine = new int[instance.numJobs];
+        this.ready = new IndexedHeap(instance.numJobs, (a, b) -> {
+            int jobA = jobOfSlot[a];
+            int jobB = jobOfSlot[b];
+            return rule.compare(instance, jobA, nextTask[jobA], earliestStart(jobA),
+                    jobB, nextTask[jobB], earliestStart(jobB));
+        });
+    }
+
+    /** Earliest time at which the ready task of the job can start: when both its job and its machine are free. */
+    int earliestStart(int job) {
+        return Math.max(jobFree[job], machineFree[instance.machine(job, nextTask[job])]);
+    }
+
+    /** Dispatches all tasks of the instance.
+     *
+     * @param random If not null, ties are broken in a random order of the jobs and with probability randomPickRate
+     *               a random ready task is dispatched instead of the most prioritary one. If null, ties are broken by
+     *               job number.
+     * @return The order in which tasks were dispatched on each machine.
+     */
+    ResourceOrder dispatch(Random random, double randomPickRate) {
+        final int numJobs = instance.numJobs;
+        final boolean timeDependent = rule.usesEarliestStart();
+        for(int job = 0 ; job < numJobs ; job++) {
+            jobOfSlot[job] = job;
+        }
+        if(random != null) {
+            for(int s = numJobs - 1 ; s > 0 ; s--) {
+                int other = random.nextInt(s + 1);
+                int tmp = jobOfSlot[s];
+                jobOfSlot[s] = jobOfSlot[other];
+                jobOfSlot[other] = tmp;
+            }
+        }
+        for(int s = 0 ; s < numJobs ; s++) {
+            slotOfJob[jobOfSlot[s]] = s;
+        }
+        ready.clear();
+        Arrays.fill(nextTask, 0);
+        Arrays.fill(jobFree, 0);
+        Arrays.fill(machineFree, 0);
+        Arrays.fill(numReady, 0);
+        for(int job = 0 ; job < numJobs ; job++) {
+            release(job, timeDependent);
+        }
+
+        ResourceOrder order = new ResourceOrder(instance);
+        while(!ready.isEmpty()) {
+            int slot = random != null && random.nextDouble() < randomPickRate
+                    ? ready.element(random.nextInt(ready.size()))
+                    : ready.peek();
+            int job = jobOfSlot[slot];
+            int task = nextTask[job];
+            int m = instance.machine(job, task);
+            order.addTaskToMachine(instance.taskId(job, task));
+
+            ready.remove(slot);
+            if(timeDependent) {
+                unlist(job, m);
+                // the other ready tasks of the machine will start later: they are taken out of the heap while their
+                // priority changes, so that the heap is never ordered by outdated priorities
+                for(int i = 0 ; i < numReady[m] ; i++) {
+                    ready.remove(slotOfJob[readyOnMachine[m * numJobs + i]]);
+                }
+            }
+            int end = Math.max(jobFree[job], machineFree[m]) + instance.duration(job, task);
+            jobFree[job] = end;
+            machineFree[m] = end;
+            nextTask[job]++;
+            if(timeDependent) {
+                for(int i = 0 ; i < numReady[m] ; i++) {
+                    ready.add(slotOfJob[readyOnMachine[m * numJobs + i]]);
+                }
+            }
+            release(job, timeDependent);
+        }
+        return order;
+    }
+
+    /** Makes the next task of the job ready, if any. */
+    private void release(int job, boolean timeDependent) {
+        if(nextTask[job] == instance.numTasks) {
+            return;
+        }
+        if(timeDependent) {
+            int m = instance.machine(job, nextTask[job]);
+            indexOnMachine[job] = numReady[m];
+            readyOnMachine[m * instance.numJobs + numReady[m]++] = job;
+        }
+        ready.add(slotOfJob[job]);
+    }
+
+    /** Removes the job from the list of ready jobs of the machine. */
+    private void unlist(int job, int machine) {
+        int offset = machine * instance.numJobs;
+        int last = readyOnMachine[offset + --numReady[machine]];
+        readyOnMachine[offset + indexOnMachine[job]] = last;
+        indexOnMachine[last] = indexOnMachine[job];
+    }
+}
@@ -0,0 +1,52 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ActiveScheduleBuilder;
+import jobshop.encodings.Schedule;
+
+import java.util.Optional;
+
+/** A greedy solver building active schedules with the algorithm of Giffler and Thompson.
+ *
+ * At each step the conflicts of the algorithm are resolved with a priority rule: the chosen task is the most
+ * prioritary of the conflict set. Remaining ties are broken by job number.
+ * Active schedules leave no gap in which a task could be moved earlier, which makes them better starting points for
+ * local search than the semi-active schedules of GreedySolver.
+ */
+public class GifflerThompsonSolver implements Solver {
+
+    /** Priority rule used to resolve the conflicts. */
+    final PriorityRule rule;
+
+    /** Creates a new solver that will use the given priority. */
+    public GifflerThompsonSolver(GreedySolver.Priority priority) {
+        this(priority.rule);
+    }
+
+    /** Creates a new solver that will use the given priority rule. */
+    public GifflerThompsonSolver(PriorityRule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline) {
+        ActiveScheduleBuilder builder = new ActiveScheduleBuilder(instance);
+        return Optional.of(builder.build(this::select));
+    }
+
+    /** Selects the most prioritary candidate of the conflict set. */
+    private int select(ActiveScheduleBuilder builder, int[] conflictSet, int size) {
+        Instance instance = builder.instance;
+        int best = conflictSet[0];
+        for(int i = 1 ; i < size ; i++) {
+            int candidate = conflictSet[i];
+            int cmp = rule.compare(instance,
+                    instance.jobOf(candidate), instance.taskOf(candidate), builder.earliestStart(candidate),
+                    instance.jobOf(best), instance.taskOf(best), builder.earliestStart(best));
+            if(cmp < 0 || (cmp == 0 && candidate < best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,23 @@
+package jobshop.solvers;
+
+/** Receives an event each time a solver improves the best solution it has found so far.
+ *
+ * Events are emitted in increasing order of time. A solver running several threads may call the listener from any
+ * of them, but calls never overlap: each call happens-before the next one, and all calls happen before
+ * <code>solve</code> returns. Implementations therefore need no synchronization of their own.
+ * Implementations should return quickly since they are called from the solver's main loop.
+ */
+@FunctionalInterface
+public interface ImprovementListener {
+
+    /** Listener that ignores all events. */
+    ImprovementListener NONE = (elapsed, iteration, makespan) -> {};
+
+    /** Called when the solver finds a solution better than all previous ones.
+     *
+     * @param elapsed Time elapsed since the start of the solver, in milliseconds.
+     * @param iteration Iteration of the solver at which the solution was found (0 for the initial solution).
+     * @param makespan Makespan of the new best solution.
+     */
+    void improved(long elapsed, int iteration, int makespan);
+}
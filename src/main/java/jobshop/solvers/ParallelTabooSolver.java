@@ -0,0 +1,247 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.CriticalPath;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.Neighborhood;
+import jobshop.solvers.neighborhood.Nowicki;
+import jobshop.solvers.neighborhood.SwapEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** A multi-start taboo search running several independent walks in parallel.
+ *
+ * Each walk starts from a different solution of a randomized greedy solver and performs the same taboo search as
+ * {@link TabooSolver}. The walks share the best solution found so far (the incumbent) through an atomic reference,
+ * without locking. A walk whose best solution has not improved for restartPeriod iterations and is worse than the
+ * incumbent is a laggard: it restarts from a copy of the incumbent, slightly perturbed by a few random moves so that
+ * it does not follow the path of the walk that found it.
+ *
+ * Walk w draws its random numbers from a generator seeded with seed + w, so that its initial solution and its
+ * perturbations are reproducible. The interactions between walks through the incumbent depend on thread timing.
+ *
+ * Like the other solvers, the solver only holds its configuration and can be reused across instances.
+ */
+public class ParallelTabooSolver implements Solver {
+
+    /** Probability of a random choice at each step of the greedy solver producing the initial solutions. */
+    static final double RANDOM_PICK_RATE = 0.1;
+
+    /** Number of random moves applied to the incumbent when a laggard restarts from it. */
+    static final int PERTURBATION_MOVES = 3;
+
+    final Neighborhood neighborhood;
+    final GreedySolver.Priority priority;
+    final int numWalks;
+    final int dureeTaboo;
+    final int restartPeriod;
+    final long seed;
+
+    /** Creates a new parallel taboo solver.
+     *
+     * @param neighborhood Neighborhood object that should be used to generate neighbor solutions to the current candidate.
+     * @param priority Priority of the randomized greedy solver providing the initial solution of each walk.
+     * @param numWalks number of walks, each running in its own thread
+     * @param dureeTaboo the number of iterations for which a solution remains taboo
+     * @param restartPeriod number of iterations without improvement after which a walk worse than the incumbent
+     *                      restarts from it
+     * @param seed seed of the random generators of the walks
+     */
+    public ParallelTabooSolver(Neighborhood neighborhood, GreedySolver.Priority priority, int numWalks, int dureeTaboo,
+                               int restartPeriod, long seed) {
+        if(numWalks < 1) {
+            throw new RuntimeException("A parallel taboo search needs at least one walk");
+        }
+        this.neighborhood = neighborhood;
+        this.priority = priority;
+        this.numWalks = numWalks;
+        this.dureeTaboo = dureeTaboo;
+        this.restartPeriod = restartPeriod;
+        this.seed = seed;
+    }
+
+    @Override
+    public boolean runsOwnThreads() {
+        return true;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline) {
+        return solve(instance, deadline, ImprovementListener.NONE);
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
+        Search search = new Search(instance, deadline, listener);
+        ExecutorService pool = Executors.newFixedThreadPool(numWalks, r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> walks = new ArrayList<>();
+            for(int w = 0 ; w < numWalks ; w++) {
+                final int walk = w;
+                walks.add(() -> {
+                    search.walk(walk);
+                    return null;
+                });
+            }
+            for(Future<Void> f : pool.invokeAll(walks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        Elite best = search.incumbent.get();
+        return best == null ? Optional.empty() : best.order.toSchedule();
+    }
+
+    /** A solution published as the incumbent. Never modified once published. */
+    private static final class Elite {
+        final ResourceOrder order;
+        final int makespan;
+
+        Elite(ResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    /** State shared by the walks of one call to solve. */
+    private final class Search {
+        final Instance instance;
+        final long deadline;
+        final long startTime;
+        final ImprovementListener listener;
+
+        /** Best solution found by any walk. */
+        final AtomicReference<Elite> incumbent = new AtomicReference<>();
+
+        /** Lower bound of the makespan: a solution reaching it is optimal. */
+        final int lowerBound;
+
+        /** Set when a walk proves its solution optimal, to stop the others. */
+        volatile boolean optimal = false;
+
+        /** Makespan of the last solution reported to the listener. Guarded by the search. */
+        int reported = Integer.MAX_VALUE;
+
+        Search(Instance instance, long deadline, ImprovementListener listener) {
+            this.instance = instance;
+            this.deadline = deadline;
+            this.startTime = System.currentTimeMillis();
+            this.listener = listener;
+            this.lowerBound = new LowerBound(instance).value();
+        }
+
+        /** Publishes the solution if it is better than the incumbent. The order is copied only if it is published. */
+        void publish(ResourceOrder order, int makespan, int iteration) {
+            Elite candidate = null;
+            while(true) {
+                Elite current = incumbent.get();
+                if(current != null && current.makespan <= makespan) {
+                    return;
+                }
+                if(candidate == null) {
+                    candidate = new Elite(order.copy(), makespan);
+                }
+                if(incumbent.compareAndSet(current, candidate)) {
+                    break;
+                }
+            }
+            if(makespan <= lowerBound) {
+                optimal = true;
+            }
+            // events are serialized so that the listener sees decreasing makespans, even if walks race to publish
+            synchronized (this) {
+                if(makespan < reported) {
+                    reported = makespan;
+                    listener.improved(System.currentTimeMillis() - startTime, iteration, makespan);
+                }
+            }
+        }
+
+        /** Runs the w-th walk until the deadline. */
+        void walk(int w) {
+            Random random = new Random(seed + w);
+
+            /* Solution initiale propre à chaque marche, produite par une heuristique gloutonne randomisée */
+            GreedySolver greedy = new GreedySolver(priority, random.nextLong(), RANDOM_PICK_RATE);
+            Optional<Schedule> init = greedy.solve(instance, deadline);
+            assert init.isPresent();
+            ResourceOrder currentOrder = new ResourceOrder(init.get());
+
+            SwapEvaluator evaluator = new SwapEvaluator(instance);
+            evaluator.update(currentOrder);
+            int walkBest = evaluator.makespan();
+            publish(currentOrder, walkBest, 0);
+
+            CriticalPath path = new CriticalPath(instance);
+            TabooMemory taboos = new TabooMemory(instance);
+            int i = 0;
+            int lastImprovement = 0;
+
+            while(!optimal) {
+                /* Consulter l'horloge toutes les CLOCK_CHECK_PERIOD itérations seulement */
+                if(i % CLOCK_CHECK_PERIOD == 0 && System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                i++;
+
+                List<Nowicki.Swap> swaps = neighborhood.allSwaps(currentOrder, evaluator, path);
+                if(swaps.isEmpty()) {
+                    /* aucun bloc de plus d'une tâche : la solution courante est optimale, elle doit être publiée
+                    (après un redémarrage, elle peut être meilleure que la meilleure solution connue) */
+                    publish(currentOrder, evaluator.makespan(), i);
+                    optimal = true;
+                    break;
+                }
+                Nowicki.Swap bestSwap = TabooSolver.selectMove(swaps, currentOrder, evaluator, taboos, i);
+                taboos.forbidReverse(currentOrder, bestSwap, i, dureeTaboo);
+                neighborhood.apply(currentOrder, bestSwap);
+                boolean valid = evaluator.update(currentOrder);
+                assert valid;
+
+                if(evaluator.makespan() < walkBest) {
+                    walkBest = evaluator.makespan();
+                    lastImprovement = i;
+                    publish(currentOrder, walkBest, i);
+                } else if(i - lastImprovement >= restartPeriod) {
+                    /* Marche en retard sur la meilleure solution connue : repartir de celle-ci, perturbée */
+                    Elite elite = incumbent.get();
+                    if(elite.makespan < walkBest) {
+                        currentOrder = elite.order.copy();
+                        valid = evaluator.update(currentOrder);
+                        for(int k = 0 ; k < PERTURBATION_MOVES ; k++) {
+                            List<Nowicki.Swap> moves = neighborhood.allSwaps(currentOrder, evaluator, path);
+                            if(moves.isEmpty()) {
+                                break;
+                            }
+                            neighborhood.apply(currentOrder, moves.get(random.nextInt(moves.size())));
+                            valid = evaluator.update(currentOrder);
+                        }
+                        assert valid;
+                        taboos = new TabooMemory(instance);
+                        /* la perturbation peut améliorer la solution de départ : l'évaluer et la publier */
+                        walkBest = evaluator.makespan();
+                        publish(currentOrder, walkBest, i);
+                    }
+                    lastImprovement = i;
+                }
+            }
+        }
+    }
+}
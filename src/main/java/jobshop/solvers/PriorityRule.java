@@ -0,0 +1,102 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+/** A priority rule of the greedy solvers, deciding which of the ready tasks is scheduled first.
+ *
+ * A rule gives a score to each ready task, and tasks with the lowest scores are scheduled first.
+ * Rules can be chained with {@link #thenBy(PriorityRule)}, the following rules breaking the ties of the previous ones.
+ */
+@FunctionalInterface
+public interface PriorityRule {
+
+    /** Score of a ready task. Lower scores are scheduled first.
+     *
+     * @param instance Instance being solved.
+     * @param job Job of the task.
+     * @param task Index of the task in its job.
+     * @param earliestStart Earliest time at which the task can start, when both its job and its machine are free.
+     */
+    int score(Instance instance, int job, int task, int earliestStart);
+
+    /** True if the score depends on the earliest start time, which increases when other tasks are scheduled on the
+     * machine of the task. */
+    default boolean usesEarliestStart() {
+        return false;
+    }
+
+    /** Compares two ready tasks: negative if the first one should be scheduled before the second one, positive if it
+     * should be scheduled after, 0 if the rule does not distinguish them. */
+    default int compare(Instance instance, int jobA, int taskA, int startA, int jobB, int taskB, int startB) {
+        return Integer.compare(score(instance, jobA, taskA, startA), score(instance, jobB, taskB, startB));
+    }
+
+    /** Rule ordering tasks by this rule, ties being broken by the given one. */
+    default PriorityRule thenBy(PriorityRule tieBreak) {
+        PriorityRule first = this;
+        return new PriorityRule() {
+            @Override
+            public int score(Instance instance, int job, int task, int earliestStart) {
+                return first.score(instance, job, task, earliestStart);
+            }
+
+            @Override
+            public boolean usesEarliestStart() {
+                return first.usesEarliestStart() || tieBreak.usesEarliestStart();
+            }
+
+            @Override
+            public int compare(Instance instance, int jobA, int taskA, int startA, int jobB, int taskB, int startB) {
+                int cmp = first.compare(instance, jobA, taskA, startA, jobB, taskB, startB);
+                return cmp != 0 ? cmp : tieBreak.compare(instance, jobA, taskA, startA, jobB, taskB, startB);
+            }
+        };
+    }
+
+    /** Shortest Processing Time: the task with the smallest duration first. */
+    PriorityRule SPT = (instance, job, task, earliestStart) -> instance.duration(job, task);
+
+    /** Longest Processing Time: the task with the longest duration first. */
+    PriorityRule LPT = (instance, job, task, earliestStart) -> -instance.duration(job, task);
+
+    /** Shortest Remaining Processing Time: the task of the job with the least remaining work first. */
+    PriorityRule SRPT = (instance, job, task, earliestStart) -> instance.remainingWork(job, task);
+
+    /** Longest Remaining Processing Time: the task of the job with the most remaining work first. */
+    PriorityRule LRPT = (instance, job, task, earliestStart) -> -instance.remainingWork(job, task);
+
+    /** Earliest Start Time: the task that can start first. */
+    PriorityRule EST = new PriorityRule() {
+        @Override
+        public int score(Instance instance, int job, int task, int earliestStart) {
+            return earliestStart;
+        }
+
+        @Override
+        public boolean usesEarliestStart() {
+            return true;
+        }
+    };
+
+    /** Parses a rule from its name: rule names (spt, lpt, srpt, lrpt, est) separated by underscores, each rule
+     * breaking the ties of the previous ones. For instance "est_lrpt_spt".
+     *
+     * @throws RuntimeException if the name is not a valid rule.
+     */
+    static PriorityRule parse(String name) {
+        PriorityRule rule = null;
+        for(String part : name.split("_")) {
+            PriorityRule next;
+            switch (part) {
+                case "spt": next = SPT; break;
+                case "lpt": next = LPT; break;
+                case "srpt": next = SRPT; break;
+                case "lrpt": next = LRPT; break;
+                case "est": next = EST; break;
+                default: throw new RuntimeException("Unknown priority rule: " + part + " in " + name);
+            }
+            rule = rule == null ? next : rule.thenBy(next);
+        }
+        return rule;
+    }
+}
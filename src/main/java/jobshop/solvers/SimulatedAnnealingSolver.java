@@ -0,0 +1,165 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.SwapEvaluator;
+
+import java.util.Optional;
+import java.util.Random;
+
+/** A simulated annealing over the critical arcs of the current solution.
+ *
+ * A move swaps the two tasks of a critical arc: two tasks that follow each other on a machine along a longest path
+ * (the neighborhood of van Laarhoven, Aarts and Lenstra, which contains the one of Nowicki and Smutnicki). Such a swap
+ * never creates a cycle. A move is drawn at random among the critical arcs, its makespan is estimated in constant time
+ * from the heads and tails of the current solution, and it is accepted with the Metropolis criterion: always if it
+ * does not increase the makespan, with probability exp(-delta / temperature) otherwise. The heads and tails, and the
+ * list of critical arcs, are only recomputed when a move is accepted.
+ *
+ * The temperature decreases geometrically with the time elapsed, so that the cooling ends at the deadline (or after
+ * maxIter iterations if it comes first). The initial and final temperatures are calibrated on the initial solution:
+ * a move that worsens it by an average amount is accepted with probability initialAcceptance at the beginning and
+ * finalAcceptance at the end.
+ *
+ * Apart from the initial solution and the copies of new best solutions, nothing is allocated during the search.
+ * Like the other solvers, the solver only holds its configuration and can be reused across instances.
+ */
+public class SimulatedAnnealingSolver implements Solver {
+
+    /** Number of random moves drawn on the initial solution to calibrate the temperatures. */
+    static final int CALIBRATION_MOVES = 100;
+
+    final Solver baseSolver;
+    final double initialAcceptance;
+    final double finalAcceptance;
+    final int maxIter;
+    final long seed;
+
+    /** Creates a new simulated annealing solver that cools down until the deadline.
+     *
+     * @param baseSolver A solver to provide the initial solution.
+     * @param initialAcceptance probability to accept an average worsening move at the beginning of the search
+     * @param finalAcceptance probability to accept an average worsening move at the end of the search
+     * @param seed seed of the random generator drawing and accepting the moves
+     */
+    public SimulatedAnnealingSolver(Solver baseSolver, double initialAcceptance, double finalAcceptance, long seed) {
+        this(baseSolver, initialAcceptance, finalAcceptance, Integer.MAX_VALUE, seed);
+    }
+
+    /** Creates a new simulated annealing solver that also stops after a given number of iterations.
+     *
+     * @param baseSolver A solver to provide the initial solution.
+     * @param initialAcceptance probability to accept an average worsening move at the beginning of the search
+     * @param finalAcceptance probability to accept an average worsening move at the end of the search
+     * @param maxIter maximal number of iterations (Integer.MAX_VALUE to only stop at the deadline)
+     * @param seed seed of the random generator drawing and accepting the moves
+     */
+    public SimulatedAnnealingSolver(Solver baseSolver, double initialAcceptance, double finalAcceptance, int maxIter,
+                                    long seed) {
+        if(!(0 < finalAcceptance && finalAcceptance <= initialAcceptance && initialAcceptance < 1)) {
+            throw new RuntimeException("Acceptance probabilities should satisfy 0 < final <= initial < 1");
+        }
+        this.baseSolver = baseSolver;
+        this.initialAcceptance = initialAcceptance;
+        this.finalAcceptance = finalAcceptance;
+        this.maxIter = maxIter;
+        this.seed = seed;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline) {
+        return solve(instance, deadline, ImprovementListener.NONE);
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
+        long startTime = System.currentTimeMillis();
+        Random random = new Random(seed);
+
+        /* Générer une solution réalisable avec une heuristique gloutonne  */
+        Optional<Schedule> init = this.baseSolver.solve(instance, deadline);
+        assert init.isPresent();
+        ResourceOrder currentOrder = new ResourceOrder(init.get());
+        ResourceOrder orderStar = currentOrder.copy();
+
+        SwapEvaluator evaluator = new SwapEvaluator(instance);
+        evaluator.update(currentOrder);
+        int bestMakespan = evaluator.makespan();
+        listener.improved(System.currentTimeMillis() - startTime, 0, bestMakespan);
+
+        /* Arcs critiques de la solution courante, codés par machine * numJobs + position */
+        int[] arcs = new int[instance.numMachines * instance.numJobs];
+        int numArcs = criticalArcs(instance, evaluator, arcs);
+
+        /* Températures initiale et finale, calibrées sur la dégradation moyenne des mouvements de la solution initiale */
+        long worsening = 0;
+        int numWorsening = 0;
+        for(int k = 0 ; k < CALIBRATION_MOVES && numArcs > 0 ; k++) {
+            int arc = arcs[random.nextInt(numArcs)];
+            int delta = evaluator.estimate(arc / instance.numJobs, arc % instance.numJobs) - evaluator.makespan();
+            if(delta > 0) {
+                worsening += delta;
+                numWorsening++;
+            }
+        }
+        double averageDelta = numWorsening == 0 ? 1 : (double) worsening / numWorsening;
+        double initialTemperature = -averageDelta / Math.log(initialAcceptance);
+        double finalTemperature = -averageDelta / Math.log(finalAcceptance);
+        double temperature = initialTemperature;
+        long duration = Math.max(1, deadline - startTime);
+
+        /* Sans arc critique, les chemins critiques ne traversent que des jobs : la solution est optimale.
+        Elle l'est aussi dès que son makespan atteint la borne inférieure */
+        int lowerBound = new LowerBound(instance).value();
+        int i = 0;
+        while(i < maxIter && numArcs > 0 && bestMakespan > lowerBound) {
+            /* Consulter l'horloge toutes les CLOCK_CHECK_PERIOD itérations seulement, et refroidir à cette occasion */
+            if(i % CLOCK_CHECK_PERIOD == 0) {
+                long now = System.currentTimeMillis();
+                if(now >= deadline) {
+                    break;
+                }
+                double progress = Math.max((double) (now - startTime) / duration, (double) i / maxIter);
+                temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, Math.min(1, progress));
+            }
+            i++;
+
+            /* Tirer un arc critique au hasard et estimer le voisin obtenu en l'inversant */
+            int arc = arcs[random.nextInt(numArcs)];
+            int machine = arc / instance.numJobs;
+            int position = arc % instance.numJobs;
+            int delta = evaluator.estimate(machine, position) - evaluator.makespan();
+
+            /* Critère de Metropolis */
+            if(delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                currentOrder.swapTasks(machine, position, position + 1);
+                boolean valid = evaluator.update(currentOrder);
+                assert valid;
+                numArcs = criticalArcs(instance, evaluator, arcs);
+
+                if(evaluator.makespan() < bestMakespan) {
+                    orderStar = currentOrder.copy();
+                    bestMakespan = evaluator.makespan();
+                    listener.improved(System.currentTimeMillis() - startTime, i, bestMakespan);
+                }
+            }
+        }
+        return orderStar.toSchedule();
+    }
+
+    /** Stores in arcs the critical arcs of the current solution of the evaluator, each one as
+     * machine * numJobs + position of its first task, and returns their number. */
+    static int criticalArcs(Instance instance, SwapEvaluator evaluator, int[] arcs) {
+        int numArcs = 0;
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            for(int position = 0 ; position < instance.numJobs - 1 ; position++) {
+                if(evaluator.isCriticalArc(machine, position)) {
+                    arcs[numArcs++] = machine * instance.numJobs + position;
+                }
+            }
+        }
+        return numArcs;
+    }
+}
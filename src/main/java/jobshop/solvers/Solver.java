@@ -9,6 +9,10 @@ import java.util.Optional;
 /** Common interface that must be implemented by all solvers. */
 public interface Solver {
 
+    /** Number of iterations between two reads of the clock by iterative solvers.
+     * Iterations are short enough that reading the clock at each of them would have a measurable cost. */
+    int CLOCK_CHECK_PERIOD = 16;
+
     /** Look for a solution until blocked or a deadline has been met.
      *
      * @param instance Jobshop instance that should be solved.
@@ -18,21 +22,83 @@ public interface Solver {
      */
     Optional<Schedule> solve(Instance instance, long deadline);
 
-    /** Static factory method to create a new solver based on its name. */
+    /** Look for a solution until blocked or a deadline has been met, reporting each improvement of the best solution.
+     *
+     * Solvers that build a single solution report it once when they are done. Iterative solvers override this method
+     * to report every new best solution as soon as it is found.
+     *
+     * @param instance Jobshop instance that should be solved.
+     * @param deadline Absolute time at which the solver should have returned a solution.
+     * @param listener Listener that is notified whenever the best solution improves.
+     * @return An optional schedule that will be non-empty if a solution was found.
+     */
+    default Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = solve(instance, deadline);
+        result.ifPresent(schedule -> listener.improved(System.currentTimeMillis() - start, 0, schedule.makespan()));
+        return result;
+    }
+
+    /** Returns true if the solver runs (part of) its search in threads of its own rather than in the calling thread,
+     * in which case the CPU time of the calling thread does not measure the work of the solver. */
+    default boolean runsOwnThreads() {
+        return false;
+    }
+
+    /** Static factory method to create a new solver based on its name.
+     *
+     * Besides the named configurations, any priority rule of {@link PriorityRule#parse(String)} is a greedy solver
+     * (e.g. "lpt" or "est_lrpt_spt"), and "gt_" followed by a rule is the Giffler and Thompson solver using this rule
+     * (e.g. "gt_srpt").
+     * "sa_" followed by the name of a solver is a simulated annealing starting from the solution of that solver
+     * (e.g. "sa_gt_lrpt"). The initial and final acceptance probabilities can be appended, separated by colons
+     * (e.g. "sa_gt_lrpt:0.5:0.001").
+     */
     static Solver getSolver(String name) {
         switch (name) {
             case "basic": return new BasicSolver();
-            case "spt": return new GreedySolver(GreedySolver.Priority.SPT);
-            case "lrpt": return new GreedySolver(GreedySolver.Priority.LRPT);
-            case "est_spt": return new GreedySolver(GreedySolver.Priority.EST_SPT);
-            case "est_lrpt": return new GreedySolver(GreedySolver.Priority.EST_LRPT);
             case "descent_est_spt": return new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT));
             case "descent_est_lrpt": return new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_LRPT));
-            case "taboo_est_spt": return new TabooSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT), 10, 3);
-            case "taboo_est_lrpt": return new TabooSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_LRPT), 10, 3);
+            case "descent_gt_lrpt": return new DescentSolver(new Nowicki(), new GifflerThompsonSolver(GreedySolver.Priority.LRPT));
+            case "descent_est_spt_par": return new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT), Runtime.getRuntime().availableProcessors());
+            case "descent_est_lrpt_par": return new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_LRPT), Runtime.getRuntime().availableProcessors());
+            case "taboo_est_spt": return new TabooSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT), Integer.MAX_VALUE, 12);
+            case "taboo_est_lrpt": return new TabooSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_LRPT), Integer.MAX_VALUE, 12);
+            case "taboo_gt_lrpt": return new TabooSolver(new Nowicki(), new GifflerThompsonSolver(GreedySolver.Priority.LRPT), Integer.MAX_VALUE, 12);
+            case "taboo_par_est_spt": return new ParallelTabooSolver(new Nowicki(), GreedySolver.Priority.EST_SPT, Runtime.getRuntime().availableProcessors(), 12, 1000, 0);
+            case "taboo_par_est_lrpt": return new ParallelTabooSolver(new Nowicki(), GreedySolver.Priority.EST_LRPT, Runtime.getRuntime().availableProcessors(), 12, 1000, 0);
+            case "bnb": return new BranchAndBoundSolver(new TabooSolver(new Nowicki(), new GifflerThompsonSolver(GreedySolver.Priority.LRPT), Integer.MAX_VALUE, 12, 2000), Runtime.getRuntime().availableProcessors());
 
-            default: throw new RuntimeException("Unknown solver: "+ name);
+            default:
+                /* recuit simulé, désigné par son solveur initial et ses probabilités d'acceptation optionnelles */
+                if(name.startsWith("sa_")) {
+                    return simulatedAnnealing(name);
+                }
+                /* solveurs gloutons, désignés par leur règle de priorité */
+                try {
+                    if(name.startsWith("gt_")) {
+                        return new GifflerThompsonSolver(PriorityRule.parse(name.substring("gt_".length())));
+                    }
+                    return new GreedySolver(PriorityRule.parse(name));
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Unknown solver: "+ name + " (" + e.getMessage() + ")", e);
+                }
         }
     }
 
+    /** Creates a simulated annealing solver from a name "sa_" base [":" initialAcceptance ":" finalAcceptance]. */
+    private static Solver simulatedAnnealing(String name) {
+        String[] parts = name.substring("sa_".length()).split(":");
+        Solver base = getSolver(parts[0]);
+        try {
+            if(parts.length == 1) {
+                return new SimulatedAnnealingSolver(base, 0.5, 0.001, 0);
+            } else if(parts.length == 3) {
+                return new SimulatedAnnealingSolver(base, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), 0);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid simulated annealing parameters in " + name + ": " + e.getMessage());
+        }
+        throw new RuntimeException("Unknown solver: "+ name);
+    }
 }
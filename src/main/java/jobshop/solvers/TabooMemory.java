@@ -0,0 +1,59 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.neighborhood.Nowicki;
+
+/** Memory of the taboo moves of a taboo search.
+ *
+ * Once two tasks have been swapped on a machine, swapping them back is forbidden for a given number of iterations.
+ * Since each job has exactly one task per machine, a pair of tasks on a machine is identified by their jobs.
+ * The memory stores, for each machine and each ordered pair of jobs (a, b), the first iteration at which the task of
+ * a may again be moved just after the task of b. Lookups and insertions are constant time.
+ *
+ * A memory belongs to a single run of the solver and should be created at the start of each run.
+ */
+final class TabooMemory {
+
+    private final Instance instance;
+
+    /** expiry[(machine * numJobs + a) * numJobs + b] is the first iteration at which the swap of the task of job a
+     * (executed before) with the task of job b (executed after) on the machine is allowed again. */
+    private final int[] expiry;
+
+    /** Creates a new memory where no move is taboo. */
+    TabooMemory(Instance instance) {
+        this.instance = instance;
+        this.expiry = new int[instance.numMachines * instance.numJobs * instance.numJobs];
+    }
+
+    /** Index in the expiry array of the swap on the given resource order. */
+    private int indexOf(ResourceOrder order, Nowicki.Swap swap) {
+        int before = instance.jobOf(order.getTaskIdOfMachine(swap.machine, swap.t1));
+        int after = instance.jobOf(order.getTaskIdOfMachine(swap.machine, swap.t2));
+        return (swap.machine * instance.numJobs + before) * instance.numJobs + after;
+    }
+
+    /** Index in the expiry array of the swap that reverts the given one. */
+    private int indexOfReverse(ResourceOrder order, Nowicki.Swap swap) {
+        int before = instance.jobOf(order.getTaskIdOfMachine(swap.machine, swap.t1));
+        int after = instance.jobOf(order.getTaskIdOfMachine(swap.machine, swap.t2));
+        return (swap.machine * instance.numJobs + after) * instance.numJobs + before;
+    }
+
+    /** Returns true if the swap on the given resource order is taboo at the given iteration. */
+    boolean isTaboo(ResourceOrder order, Nowicki.Swap swap, int iteration) {
+        return expiry[indexOf(order, swap)] > iteration;
+    }
+
+    /** Iteration from which the swap on the given resource order is no longer taboo. */
+    int expiry(ResourceOrder order, Nowicki.Swap swap) {
+        return expiry[indexOf(order, swap)];
+    }
+
+    /** Forbids reverting the swap performed at the given iteration during the next <code>tenure</code> iterations.
+     * Must be called before the swap is applied on the resource order. */
+    void forbidReverse(ResourceOrder order, Nowicki.Swap swap, int iteration, int tenure) {
+        expiry[indexOfReverse(order, swap)] = iteration + tenure + 1;
+    }
+}
@@ -1,56 +1,65 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.CriticalPath;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
 import jobshop.solvers.neighborhood.Neighborhood;
 import jobshop.solvers.neighborhood.Nowicki;
+import jobshop.solvers.neighborhood.SwapEvaluator;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-/** An empty shell to implement a descent solver. */
+/** A taboo search over the Nowicki and Smutnicki neighborhood.
+ *
+ * The solver only holds its configuration: the taboo memory and all other state are created anew for each call to
+ * solve, so that a single solver object can be reused across instances and shared between threads.
+ */
 public class TabooSolver implements Solver {
 
     final Neighborhood neighborhood;
     final Solver baseSolver;
     final int maxIter;
     final int dureeTaboo;
-    final List<Nowicki.Swap> tabooList;
+    final int maxIterWithoutImprovement;
 
     /** Creates a new taboo solver with a given neighborhood and a solver for the initial solution.
      *
      * @param neighborhood Neighborhood object that should be used to generate neighbor solutions to the current candidate.
      * @param baseSolver A solver to provide the initial solution.
-     * @param maxIter maximal number of iterations
+     * @param maxIter maximal number of iterations (Integer.MAX_VALUE to only stop at the deadline)
      * @param dureeTaboo the number of iterations for which a solution remains taboo
      *
      */
     public TabooSolver(Neighborhood neighborhood, Solver baseSolver, int maxIter, int dureeTaboo) {
+        this(neighborhood, baseSolver, maxIter, dureeTaboo, Integer.MAX_VALUE);
+    }
+
+    /** Creates a new taboo solver that also stops when the best solution has not improved for a number of iterations.
+     *
+     * @param neighborhood Neighborhood object that should be used to generate neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution.
+     * @param maxIter maximal number of iterations (Integer.MAX_VALUE to only stop at the deadline)
+     * @param dureeTaboo the number of iterations for which a solution remains taboo
+     * @param maxIterWithoutImprovement maximal number of consecutive iterations without improving the best solution
+     */
+    public TabooSolver(Neighborhood neighborhood, Solver baseSolver, int maxIter, int dureeTaboo, int maxIterWithoutImprovement) {
         this.neighborhood = neighborhood;
         this.baseSolver = baseSolver;
         this.maxIter = maxIter;
         this.dureeTaboo = dureeTaboo;
-        tabooList = new ArrayList<>();
+        this.maxIterWithoutImprovement = maxIterWithoutImprovement;
     }
 
-    /** Trouver le Swap qui a généré order2 à partir d'order1 */
-    public Nowicki.Swap findSwap(Instance instance, ResourceOrder order1, ResourceOrder order2) {
-        Nowicki.Swap swap = null;
-        for(int m=0; m<instance.numMachines; m++) {
-            for(int t=0; t<instance.numJobs; t++) {
-                if(order1.getTaskOfMachine(m, t) != order2.getTaskOfMachine(m, t)) {
-                    swap = new Nowicki.Swap(m,  order2.getTaskOfMachine(m, t).task, order1.getTaskOfMachine(m, t).task);
-                    break;
-                }
-            }
-        }
-        return swap;
+    @Override
+    public Optional<Schedule> solve(Instance instance, long deadline) {
+        return solve(instance, deadline, ImprovementListener.NONE);
     }
 
     @Override
-    public Optional<Schedule> solve(Instance instance, long deadline) {
+    public Optional<Schedule> solve(Instance instance, long deadline, ImprovementListener listener) {
         long startTime = System.currentTimeMillis();
 
         /* Générer une solution réalisable avec une heuristique gloutonne  */
@@ -59,49 +68,85 @@ public class TabooSolver implements Solver {
 
         /* mémoriser la meilleure solution */
         ResourceOrder orderStar = new ResourceOrder(order.get());
+        /* la solution courante est modifiée sur place : elle n'est copiée que pour mémoriser une meilleure solution */
         ResourceOrder currentOrder = orderStar.copy();
 
-        /* Compteur d'itérations */
-        int i=0;
+        /* Heads et tails de la solution courante, pour estimer les voisins sans les construire */
+        SwapEvaluator evaluator = new SwapEvaluator(instance);
+        evaluator.update(currentOrder);
+        int bestMakespan = evaluator.makespan();
+        listener.improved(System.currentTimeMillis() - startTime, 0, bestMakespan);
 
-        while(i<maxIter && startTime<deadline) {
-            /* Affichage du makespan */
-            System.out.println("makespan : "+ currentOrder.toSchedule().get().makespan());
+        /* Chemin critique de la solution courante, obtenu de l'évaluateur sans la décoder à nouveau */
+        CriticalPath path = new CriticalPath(instance);
 
-            /* Explorer les voisins successivement */
-            i++;
+        /* Mémoire des mouvements tabous, propre à cette exécution */
+        TabooMemory taboos = new TabooMemory(instance);
+
+        /* Compteur d'itérations, et itération de la dernière amélioration */
+        int i=0;
+        int lastImprovement=0;
 
-            /* Choisir le meilleur voisin non tabou */
-            List<ResourceOrder> neighbors = this.neighborhood.generateNeighbors(currentOrder);
-            ResourceOrder bestNeighbor = null;
+        /* Arrêter dès que la meilleure solution atteint la borne inférieure : elle est alors optimale */
+        int lowerBound = new LowerBound(instance).value();
 
-            for(ResourceOrder neighbor: neighbors) {
-                assert neighbor.toSchedule().isPresent();
-                Nowicki.Swap swp = findSwap(instance, currentOrder, neighbor);
-                if(!tabooList.contains(swp) && (bestNeighbor == null || (neighbor.toSchedule().get().makespan()<bestNeighbor.toSchedule().get().makespan() && bestNeighbor.toSchedule().isPresent()))) {
-                    bestNeighbor = neighbor;
-                }
+        while(i<maxIter && i-lastImprovement<maxIterWithoutImprovement && bestMakespan>lowerBound) {
+            /* Consulter l'horloge toutes les CLOCK_CHECK_PERIOD itérations seulement */
+            if(i % CLOCK_CHECK_PERIOD == 0 && System.currentTimeMillis() >= deadline) {
+                break;
             }
 
-            /* Mettre à jour la liste des solutions Tabou */
-            if(bestNeighbor != null) {
-                tabooList.add(findSwap(instance, currentOrder, bestNeighbor));
-                currentOrder = bestNeighbor;
+            /* Explorer les voisins successivement */
+            i++;
 
-                /* Supprimer la solution qui a dépassé dureeTaboo */
-                if(tabooList.size()>dureeTaboo){
-                    tabooList.remove(0);
-                }
+            /* Choisir le meilleur voisin non tabou selon l'estimation de son makespan */
+            List<Nowicki.Swap> swaps = this.neighborhood.allSwaps(currentOrder, evaluator, path);
+            if(swaps.isEmpty()) {
+                /* aucun bloc de plus d'une tâche : le chemin critique ne peut pas être raccourci */
+                break;
+            }
+            Nowicki.Swap bestSwap = selectMove(swaps, currentOrder, evaluator, taboos, i);
+
+            /* Interdire le mouvement inverse pendant dureeTaboo itérations */
+            taboos.forbidReverse(currentOrder, bestSwap, i, dureeTaboo);
+            /* Seul le voisin retenu est construit, sur place */
+            this.neighborhood.apply(currentOrder, bestSwap);
+
+            boolean valid = evaluator.update(currentOrder);
+            assert valid;
+            if(evaluator.makespan()<bestMakespan){
+                orderStar = currentOrder.copy();
+                bestMakespan = evaluator.makespan();
+                lastImprovement = i;
+                listener.improved(System.currentTimeMillis() - startTime, i, bestMakespan);
+            }
+        }
+        return orderStar.toSchedule();
+    }
 
-                assert currentOrder.toSchedule().isPresent();
-                assert orderStar.toSchedule().isPresent();
-                if(currentOrder.toSchedule().get().makespan()<orderStar.toSchedule().get().makespan()){
-                    orderStar = currentOrder;
+    /** Selects the non taboo swap with the best estimated makespan among the (non empty) list of swaps.
+     * If all swaps are taboo, the one that is released first is selected.
+     *
+     * @param evaluator Evaluator whose current solution is the resource order.
+     */
+    static Nowicki.Swap selectMove(List<Nowicki.Swap> swaps, ResourceOrder order, SwapEvaluator evaluator,
+                                   TabooMemory taboos, int iteration) {
+        Nowicki.Swap bestSwap = null;
+        int bestEstimate = Integer.MAX_VALUE;
+        /* si tous les voisins sont tabous, on retient celui qui sera libéré le plus tôt */
+        Nowicki.Swap oldestTaboo = null;
+
+        for(Nowicki.Swap swp : swaps) {
+            if(!taboos.isTaboo(order, swp, iteration)) {
+                int estimate = evaluator.estimate(swp);
+                if(bestSwap == null || estimate < bestEstimate) {
+                    bestSwap = swp;
+                    bestEstimate = estimate;
                 }
-            } else {
-                currentOrder.swapTasks(tabooList.get(0).machine, tabooList.get(0).t1, tabooList.get(0).t2);
+            } else if(oldestTaboo == null || taboos.expiry(order, swp) < taboos.expiry(order, oldestTaboo)) {
+                oldestTaboo = swp;
             }
         }
-        return orderStar.toSchedule();
+        return bestSwap != null ? bestSwap : oldestTaboo;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,41 @@
 package jobshop.solvers.neighborhood;
 
+import jobshop.encodings.CriticalPath;
 import jobshop.encodings.ResourceOrder;
 
 import java.util.List;
 
 /** For a particular solution in the ResourceOrder encoding, a neighborhood allows the generation of its neighbors:
  * a set of closely related solutions.
+ *
+ * Neighbors can either be generated as new ResourceOrder objects (generateNeighbors), or be enumerated as moves
+ * (allSwaps) that are applied in place on the current solution and undone afterwards. The latter avoids copying
+ * the resource order for each neighbor.
  */
 public abstract class Neighborhood {
 
     /** Generates all neighbors for the current solution.  */
     public abstract List<ResourceOrder> generateNeighbors(ResourceOrder current);
 
+    /** Generates all swaps that lead from the current solution to one of its neighbors. */
+    public abstract List<Nowicki.Swap> allSwaps(ResourceOrder current);
+
+    /** Generates all swaps of the current solution, which the evaluator has already decoded.
+     * Neighborhoods based on the critical path obtain it from the evaluator, in the caller's buffer, instead of
+     * decoding the solution again. By default, the swaps are generated from the resource order alone.
+     */
+    public List<Nowicki.Swap> allSwaps(ResourceOrder current, SwapEvaluator evaluator, CriticalPath path) {
+        return allSwaps(current);
+    }
+
+    /** Applies the move on the given solution, in place: the resource order becomes the neighbor. */
+    public void apply(ResourceOrder current, Nowicki.Swap move) {
+        move.applyOn(current);
+    }
+
+    /** Undoes a move previously applied on the given solution, which goes back to its state before the move. */
+    public void undo(ResourceOrder current, Nowicki.Swap move) {
+        move.undoOn(current);
+    }
+
 }
@@ -1,8 +1,8 @@
 package jobshop.solvers.neighborhood;
 
+import jobshop.encodings.CriticalPath;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
-import jobshop.encodings.Task;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -88,10 +88,21 @@ public class Nowicki extends Neighborhood {
          */
         public ResourceOrder generateFrom(ResourceOrder original) {
             ResourceOrder newOrder = original.copy();
-            newOrder.swapTasks(this.machine, this.t1, this.t2);
+            applyOn(newOrder);
             return newOrder;
         }
 
+        /** Performs the swap on the given ResourceOrder, which is modified in place. */
+        public void applyOn(ResourceOrder order) {
+            order.swapTasks(this.machine, this.t1, this.t2);
+        }
+
+        /** Reverts the swap previously performed on the given ResourceOrder.
+         *  Exchanging the same two positions again restores the original order. */
+        public void undoOn(ResourceOrder order) {
+            order.swapTasks(this.machine, this.t1, this.t2);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -116,6 +127,7 @@ public class Nowicki extends Neighborhood {
 
     /** Generates all swaps of the given ResourceOrder.
      * This method can be used if one wants to access the inner fields of a neighbors. */
+    @Override
     public List<Swap> allSwaps(ResourceOrder current) {
         List<Swap> neighbors = new ArrayList<>();
         // iterate over all blocks of the critical path
@@ -126,35 +138,42 @@ public class Nowicki extends Neighborhood {
         return neighbors;
     }
 
-    /** Returns a list of all the blocks of the critical path. */
+    /** Generates all swaps of the current solution from the critical path of the evaluator, which must hold the heads
+     * of this solution. The path is stored in the given buffer: the solution is not decoded again. */
+    @Override
+    public List<Swap> allSwaps(ResourceOrder current, SwapEvaluator evaluator, CriticalPath path) {
+        evaluator.criticalPath(path);
+        List<Swap> neighbors = new ArrayList<>();
+        for(var block : blocksOf(current, path)) {
+            neighbors.addAll(neighbors(block));
+        }
+        return neighbors;
+    }
+
+    /** Returns a list of all the blocks of the critical path that contain at least two tasks. */
     public List<Block> blocksOfCriticalPath(ResourceOrder order) {
         Optional<Schedule> optSchedule = order.toSchedule();
         assert optSchedule.isPresent();
         Schedule schedule = optSchedule.get();
 
-        List<Task> tskOfCriticalPath = schedule.criticalPath();
-        List<Block> blockList = new ArrayList<>();
+        CriticalPath path = new CriticalPath(order.instance);
+        schedule.criticalPath(path);
+        return blocksOf(order, path);
+    }
 
-        /* Parcourir la liste des tâches du chemin critique et créer un nouveau block si on trouve une tâche
-        dont la machine est différente de la machine de la tâche qui la précède */
-        int tsk = 0, nextTsk = tsk+1;
-        while (nextTsk != tskOfCriticalPath.size()) {
-            if (order.instance.machine(tskOfCriticalPath.get(tsk)) != order.instance.machine(tskOfCriticalPath.get(nextTsk))) {
-                /* Si le block contient qu'une seule tâche */
-                if (tsk != nextTsk-1) {
-                    blockList.add(new Block(order.instance.machine(tskOfCriticalPath.get(tsk)),
-                            order.getIndexOfTaskInMachine(tskOfCriticalPath.get(tsk)),
-                            order.getIndexOfTaskInMachine(tskOfCriticalPath.get(nextTsk-1))));
-                }
-                tsk = nextTsk;
+    /** Converts the blocks of a critical path of the given resource order into a list of blocks.
+     * Blocks made of a single task are ignored since they cannot be modified by a swap. */
+    List<Block> blocksOf(ResourceOrder order, CriticalPath path) {
+        List<Block> blockList = new ArrayList<>();
+        for (int b = 0; b < path.numBlocks(); b++) {
+            int first = path.blockStart(b);
+            int last = path.blockEnd(b);
+            if (first != last) {
+                blockList.add(new Block(path.blockMachine(b),
+                        order.getIndexOfTaskInMachine(path.task(first)),
+                        order.getIndexOfTaskInMachine(path.task(last))));
             }
-            nextTsk++;
         }
-        /* Ajouter le dernier block */
-        blockList.add(new Block(order.instance.machine(tskOfCriticalPath.get(tsk)),
-                order.getIndexOfTaskInMachine(tskOfCriticalPath.get(tsk)),
-                order.getIndexOfTaskInMachine(tskOfCriticalPath.get(nextTsk-1))));
-
         return blockList;
     }
 
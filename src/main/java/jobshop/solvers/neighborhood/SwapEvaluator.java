@@ -0,0 +1,170 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.CriticalPath;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.ScheduleDecoder;
+import jobshop.encodings.Task;
+
+/** Estimates the makespan of the neighbors of a ResourceOrder without building them.
+ *
+ * The evaluator keeps, for the current solution, the head and the tail of every task:
+ *  - the head of a task is the length of the longest path ending at its start (i.e. its start time);
+ *  - the tail of a task is the length of the longest path starting right after its end.
+ * The makespan of the solution is the max of head + duration + tail over all tasks.
+ *
+ * Swapping two adjacent tasks u and v of a machine only changes the longest paths through u and v.
+ * Their new heads and tails can be recomputed from the ones of their neighbors in the graph, which gives the
+ * estimate of Taillard (also used by Nowicki and Smutnicki) in constant time.
+ * For swaps on a critical block, this estimate is a lower bound of the makespan of the neighbor.
+ *
+ * Tasks are identified by their number job * numTasks + task.
+ */
+public final class SwapEvaluator {
+
+    /** Instance on which the evaluator works. */
+    public final Instance instance;
+
+    /** Resource order whose heads and tails are currently stored. */
+    private ResourceOrder current;
+
+    /** Duration of each task. */
+    private final int[] duration;
+
+    /** Decoder of the current solution: provides the heads (start times), the machine sequences and
+     * a topological order of the tasks. */
+    private final ScheduleDecoder decoder;
+
+    /** Length of the longest path after the end of each task in the current solution. */
+    private final int[] tail;
+
+    /** Decoder used to evaluate exactly the swaps of non adjacent tasks (created on first use). */
+    private ScheduleDecoder exactDecoder;
+
+    /** Creates a new evaluator for the given instance. No solution is loaded yet. */
+    public SwapEvaluator(Instance instance) {
+        this.instance = instance;
+        int numTasks = instance.numJobs * instance.numTasks;
+        this.duration = new int[numTasks];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                duration[instance.taskId(job, task)] = instance.duration(job, task);
+            }
+        }
+        this.decoder = new ScheduleDecoder(instance);
+        this.tail = new int[numTasks];
+    }
+
+    /** Task preceding the given one in its job, -1 if it is the first one. */
+    private int jobPred(int t) {
+        return t % instance.numTasks == 0 ? -1 : t - 1;
+    }
+
+    /** Task following the given one in its job, -1 if it is the last one. */
+    private int jobSucc(int t) {
+        return t % instance.numTasks == instance.numTasks - 1 ? -1 : t + 1;
+    }
+
+    /** Loads a new solution and computes the heads and tails of all its tasks.
+     *
+     * @return False if the resource order contains a cycle (it does not represent a valid solution).
+     */
+    public boolean update(ResourceOrder order) {
+        this.current = order;
+        if(!decoder.run(order)) {
+            return false;
+        }
+        // tails are computed in the reverse topological order
+        for(int next = duration.length - 1 ; next >= 0 ; next--) {
+            int t = decoder.topologicalOrder(next);
+            tail[t] = Math.max(tailFrom(jobSucc(t)), tailFrom(decoder.machineSuccessor(t)));
+        }
+        return true;
+    }
+
+    /** End time of the given task in the current solution, 0 if there is no such task. */
+    private int endOf(int t) {
+        return t == -1 ? 0 : decoder.startTime(t) + duration[t];
+    }
+
+    /** Length of the longest path starting at the given task, 0 if there is no such task. */
+    private int tailFrom(int t) {
+        return t == -1 ? 0 : duration[t] + tail[t];
+    }
+
+    /** Makespan of the current solution. */
+    public int makespan() {
+        return decoder.makespan();
+    }
+
+    /** Start time of the task in the current solution. */
+    public int head(Task t) {
+        return decoder.startTime(instance.taskId(t));
+    }
+
+    /** Length of the longest path after the end of the task in the current solution. */
+    public int tail(Task t) {
+        return tail[instance.taskId(t)];
+    }
+
+    /** Computes a critical path of the current solution and its blocks, and stores them in the given buffer.
+     * The solution is not decoded again. */
+    public void criticalPath(CriticalPath out) {
+        decoder.criticalPath(out);
+    }
+
+    /** Start time of the task with the given identifier in the current solution. */
+    public int head(int taskId) {
+        return decoder.startTime(taskId);
+    }
+
+    /** Length of the longest path after the end of the task with the given identifier in the current solution. */
+    public int tail(int taskId) {
+        return tail[taskId];
+    }
+
+    /** Returns true if the tasks at the given position and the next one on the machine form a critical arc of the
+     * current solution: the second one starts when the first one ends, and a longest path goes through both.
+     * Swapping the two tasks of a critical arc always results in a valid solution. */
+    public boolean isCriticalArc(int machine, int position) {
+        int u = current.getTaskIdOfMachine(machine, position);
+        int v = current.getTaskIdOfMachine(machine, position + 1);
+        return endOf(u) == decoder.startTime(v) && decoder.startTime(v) + duration[v] + tail[v] == makespan();
+    }
+
+    /** Estimates the makespan of the solution obtained by applying the swap on the current solution.
+     *
+     * The estimate is computed in constant time when the two tasks are adjacent on their machine, which is always
+     * the case for the Nowicki and Smutnicki neighborhood. Other swaps are evaluated exactly by building the neighbor.
+     *
+     * @return The estimated makespan, or Integer.MAX_VALUE if the swap is known to result in an invalid solution.
+     */
+    public int estimate(Nowicki.Swap swap) {
+        if(swap.t2 != swap.t1 + 1) {
+            if(exactDecoder == null) {
+                exactDecoder = new ScheduleDecoder(instance);
+            }
+            // the neighbor is built in place and the current solution restored right after
+            swap.applyOn(current);
+            boolean valid = exactDecoder.run(current);
+            swap.undoOn(current);
+            return valid ? exactDecoder.makespan() : Integer.MAX_VALUE;
+        }
+        return estimate(swap.machine, swap.t1);
+    }
+
+    /** Estimates, in constant time, the makespan of the solution obtained by swapping the task at the given position
+     * on the machine with the next one. This is the allocation-free counterpart of {@link #estimate(Nowicki.Swap)}. */
+    public int estimate(int machine, int position) {
+        // u is executed just before v; after the swap v is executed just before u
+        int u = current.getTaskIdOfMachine(machine, position);
+        int v = current.getTaskIdOfMachine(machine, position + 1);
+
+        int headV = Math.max(endOf(jobPred(v)), endOf(decoder.machinePredecessor(u)));
+        int headU = Math.max(endOf(jobPred(u)), headV + duration[v]);
+        int tailU = Math.max(tailFrom(jobSucc(u)), tailFrom(decoder.machineSuccessor(v)));
+        int tailV = Math.max(tailFrom(jobSucc(v)), tailU + duration[u]);
+
+        return Math.max(headV + duration[v] + tailV, headU + duration[u] + tailU);
+    }
+}
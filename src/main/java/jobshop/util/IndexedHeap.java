@@ -0,0 +1,193 @@
+package jobshop.util;
+
+import java.util.Arrays;
+
+/** A binary min-heap over the integers 0 ... capacity-1, each element being present at most once with a key.
+ *
+ * The heap keeps the position of every element, so that the key of an element can be changed and an element removed
+ * in O(log n), in addition to the usual insertion and extraction of the minimum.
+ * Elements with equal keys are ordered by increasing element, which makes the order of extraction deterministic.
+ *
+ * Instead of keys, elements can be ordered by an {@link Order} that compares them directly, for priorities that do not
+ * fit in a long. When the priority of an element changes, {@link #update(int)} must be called before the priority of
+ * any other element of the heap changes (otherwise, the elements should be removed while their priorities change).
+ */
+public final class IndexedHeap {
+
+    /** Comparison of two elements. */
+    @FunctionalInterface
+    public interface Order {
+        /** Negative if a has a higher priority (should be extracted first) than b, positive if it has a lower one. */
+        int compare(int a, int b);
+    }
+
+    /** Order of the elements, null if they are ordered by their keys. */
+    private final Order order;
+
+    /** Elements of the heap, in heap order. Only the first <code>size</code> elements are meaningful. */
+    private final int[] heap;
+
+    /** Position of each element in <code>heap</code>, -1 if it is not in the heap. */
+    private final int[] position;
+
+    /** Key of each element in the heap. */
+    private final long[] keys;
+
+    private int size = 0;
+
+    /** Creates an empty heap that may contain the elements 0 ... capacity-1, ordered by their keys. */
+    public IndexedHeap(int capacity) {
+        this(capacity, null);
+    }
+
+    /** Creates an empty heap that may contain the elements 0 ... capacity-1, ordered by the given order (or by their
+     * keys if null). */
+    public IndexedHeap(int capacity, Order order) {
+        this.order = order;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /** Number of elements in the heap. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns true if the element is in the heap. */
+    public boolean contains(int element) {
+        return position[element] != -1;
+    }
+
+    /** Key of an element of the heap. */
+    public long key(int element) {
+        assert contains(element);
+        return keys[element];
+    }
+
+    /** Element at the given position of the heap (between 0 and size-1), in no particular order.
+     * Useful to pick an element at random. */
+    public int element(int index) {
+        assert index < size;
+        return heap[index];
+    }
+
+    /** Element with the smallest key. The heap must not be empty. */
+    public int peek() {
+        assert size > 0;
+        return heap[0];
+    }
+
+    /** Removes and returns the element with the smallest key. The heap must not be empty. */
+    public int poll() {
+        int min = heap[0];
+        remove(min);
+        return min;
+    }
+
+    /** Inserts an element that is not in the heap. */
+    public void add(int element, long key) {
+        assert !contains(element);
+        keys[element] = key;
+        heap[size] = element;
+        position[element] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /** Inserts an element that is not in the heap, in a heap ordered by an {@link Order}. */
+    public void add(int element) {
+        add(element, 0);
+    }
+
+    /** Restores the position of an element whose priority has changed, in a heap ordered by an {@link Order}. */
+    public void update(int element) {
+        assert contains(element);
+        siftUp(position[element]);
+        siftDown(position[element]);
+    }
+
+    /** Changes the key of an element of the heap. */
+    public void update(int element, long key) {
+        assert contains(element);
+        long old = keys[element];
+        keys[element] = key;
+        if(key < old) {
+            siftUp(position[element]);
+        } else if(key > old) {
+            siftDown(position[element]);
+        }
+    }
+
+    /** Removes an element of the heap. */
+    public void remove(int element) {
+        assert contains(element);
+        int pos = position[element];
+        int last = heap[--size];
+        position[element] = -1;
+        if(pos != size) {
+            heap[pos] = last;
+            position[last] = pos;
+            siftDown(pos);
+            siftUp(position[last]);
+        }
+    }
+
+    /** Removes all elements. */
+    public void clear() {
+        for(int i = 0 ; i < size ; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /** Returns true if element a should be above element b. */
+    private boolean before(int a, int b) {
+        if(order != null) {
+            int cmp = order.compare(a, b);
+            return cmp < 0 || (cmp == 0 && a < b);
+        }
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        while(pos > 0) {
+            int parent = (pos - 1) / 2;
+            if(!before(element, heap[parent])) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            position[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        while(true) {
+            int child = 2 * pos + 1;
+            if(child >= size) {
+                break;
+            }
+            if(child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if(!before(heap[child], element)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            position[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+}
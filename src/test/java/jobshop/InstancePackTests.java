@@ -0,0 +1,101 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+public class InstancePackTests {
+
+    /** Instances loaded from a pack should be identical to the ones parsed from their files. */
+    @Test
+    public void testPackRoundTrip() throws IOException {
+        Path file = Files.createTempFile("instances", ".pack");
+        try {
+            InstancePack.build(Paths.get("instances"), file);
+            InstancePack pack = InstancePack.open(file);
+
+            for (String name : BestKnownResults.instances) {
+                assert pack.contains(name) : name;
+                Instance expected = Instance.fromFile(Paths.get("instances", name));
+                Instance actual = pack.instance(name);
+                assert actual.name.equals(name);
+                assert actual.numJobs == expected.numJobs && actual.numTasks == expected.numTasks;
+                for (int job = 0; job < expected.numJobs; job++) {
+                    for (int task = 0; task < expected.numTasks; task++) {
+                        assert actual.machine(job, task) == expected.machine(job, task);
+                        assert actual.duration(job, task) == expected.duration(job, task);
+                        assert actual.remainingWork(job, task) == expected.remainingWork(job, task);
+                    }
+                }
+                assert pack.instance(name) == actual : "Instances should be created once";
+            }
+
+            // prefix queries from the index of the pack
+            for (String prefix : new String[]{"ft", "la", "la0", "ta0", "abz", "aaa", "no_instance_with_this_name"}) {
+                assert BestKnownResults.instancesMatching(prefix, pack).equals(BestKnownResults.instancesMatching(prefix))
+                        : prefix;
+            }
+            // the pack also contains instances without a known best result
+            assert pack.namesMatching("ta7").size() == 10;
+            assert Instance.fromPack(file, "ta71").numJobs == 100;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Files that are not packs should be rejected. */
+    @Test
+    public void testInvalidPack() throws IOException {
+        try {
+            InstancePack.open(Paths.get("instances", "ft06"));
+            assert false : "A text instance is not a pack";
+        } catch (IOException e) {
+            assert e.getMessage().contains("not an instance pack");
+        }
+
+        Instance ft06 = Instance.fromFile(Paths.get("instances", "ft06"));
+        byte[] valid = InstancePack.encode(List.of(ft06));
+        Path file = Files.createTempFile("corrupted", ".pack");
+        try {
+            // truncated data of the instance
+            Files.write(file, Arrays.copyOf(valid, valid.length - 4));
+            assertRejected(file, "truncated data of instance ft06");
+            // truncated index
+            Files.write(file, Arrays.copyOf(valid, 19));
+            assertRejected(file, "truncated instance pack");
+            // huge number of instances
+            byte[] corrupted = valid.clone();
+            ByteBuffer.wrap(corrupted).putInt(8, Integer.MAX_VALUE);
+            Files.write(file, corrupted);
+            assertRejected(file, "invalid number of instances");
+            // negative length of a name
+            corrupted = valid.clone();
+            ByteBuffer.wrap(corrupted).putShort(12, (short) -1);
+            Files.write(file, corrupted);
+            assertRejected(file, "invalid length");
+            // offset beyond the end of the file
+            corrupted = valid.clone();
+            ByteBuffer.wrap(corrupted).putInt(18, valid.length);
+            Files.write(file, corrupted);
+            assertRejected(file, "invalid offset");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Checks that opening the file fails with an exception naming the file and giving the expected reason. */
+    private static void assertRejected(Path file, String reason) {
+        try {
+            InstancePack.open(file);
+            assert false : "The pack should be rejected: " + reason;
+        } catch (IOException e) {
+            assert e.getMessage().startsWith(file.toString()) && e.getMessage().contains(reason) : e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package jobshop;
+
+import jobshop.encodings.Schedule;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.Solver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class LowerBoundTests {
+
+    /** The bounds should never exceed the best known makespan, and the Jackson bound should dominate the machine one. */
+    @Test
+    public void testBoundsAreValid() throws IOException {
+        for (String instanceName : BestKnownResults.instancesMatching("")) {
+            if (!Paths.get("instances", instanceName).toFile().exists()) {
+                continue;
+            }
+            LowerBound bound = new LowerBound(Instance.fromFile(Paths.get("instances", instanceName)));
+            assert bound.value() <= BestKnownResults.of(instanceName) : instanceName;
+            assert bound.jacksonBound() >= bound.machineBound() : instanceName;
+        }
+
+        LowerBound ft06 = new LowerBound(Instance.fromFile(Paths.get("instances", "ft06")));
+        assert ft06.jobBound() == 47 && ft06.machineBound() == 52 && ft06.jacksonBound() == 52;
+        // preemption helps on la16: the machine bound is loose
+        LowerBound la16 = new LowerBound(Instance.fromFile(Paths.get("instances", "la16")));
+        assert la16.machineBound() == 705 && la16.jacksonBound() == 875 && la16.value() == 875;
+    }
+
+    /** A search should stop as soon as its best solution reaches the lower bound, well before the deadline. */
+    @Test
+    public void testSearchStopsAtLowerBound() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "la01"));
+        assert new LowerBound(instance).value() == BestKnownResults.of("la01");
+
+        Solver taboo = new TabooSolver(new Nowicki(), new GifflerThompsonSolver(GreedySolver.Priority.LRPT), Integer.MAX_VALUE, 12);
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = taboo.solve(instance, start + 60000);
+        assert result.isPresent() && result.get().makespan() == BestKnownResults.of("la01");
+        assert System.currentTimeMillis() - start < 30000;
+    }
+}
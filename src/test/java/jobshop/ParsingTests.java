@@ -3,6 +3,9 @@ package jobshop;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 public class ParsingTests {
@@ -24,6 +27,12 @@ public class ParsingTests {
         assert instance.numJobs == 10;
         assert instance.numTasks == 5;
         assert instance.numMachines == 5;
+
+        // first job: 1 21 0 53 4 95 3 55 2 34
+        assert instance.machine(0, 2) == 4 && instance.duration(0, 2) == 95;
+        assert instance.remainingWork(0, 0) == 258;
+        assert instance.remainingWork(0, 3) == 89;
+        assert instance.remainingWork(0, 5) == 0;
     }
 
     /** Test that we can successfully read all known instances. */
@@ -36,5 +45,47 @@ public class ParsingTests {
 
     }
 
+    /** Writes the content to a temporary file and parses it. */
+    private static Instance parse(String content) throws IOException {
+        Path file = Files.createTempFile("instance", ".txt");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+            return Instance.fromFile(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
 
+    /** Comments, blank lines, Windows line endings and extra numbers at the end of a line should be accepted. */
+    @Test
+    public void testLenientFormat() throws IOException {
+        Instance instance = parse("# comment\r\n\r\n2 3 # num-jobs num-tasks\r\n# another comment\n" +
+                "0 3 1 3 2 2\n\t1 2  0 2 2 4 99\n");
+        assert instance.numJobs == 2 && instance.numTasks == 3;
+        assert instance.machine(1, 0) == 1 && instance.duration(1, 2) == 4;
+        assert instance.task_with_machine(1, 0) == 1;
+        assert instance.remainingWork(0, 0) == 8;
+    }
+
+    /** Malformed files should be rejected with the line and column of the error. */
+    @Test
+    public void testMalformedInstances() throws IOException {
+        String[][] cases = {
+                // content, expected position in the message
+                {"2 3\n0 3 1 3 2 2\n1 2 0 x 2 4\n", ":3:7:"},
+                {"2 3\n0 3 1 3 2 2\n1 2 0 2 2\n", ":3:10:"},
+                {"2 3\n0 3 1 3 2 2\n", ":3:1:"},
+                {"2 3\n0 3 1 3 5 2\n1 2 0 2 2 4\n", ":2:10:"},
+                {"2 3\n0 3 1 3 2 2\n1 2 0 2 1 4\n", ":3:10:"},
+                {"# only a comment\n2\n", ":2:2:"},
+        };
+        for (String[] c : cases) {
+            try {
+                parse(c[0]);
+                assert false : "Should not parse: " + c[0];
+            } catch (IOException e) {
+                assert e.getMessage().contains(c[1]) : e.getMessage() + " does not contain " + c[1];
+            }
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class ActiveScheduleTests {
+
+    /** Returns true if no task of the schedule could start earlier, in an idle gap of its machine. */
+    static boolean isActive(Schedule schedule) {
+        Instance instance = schedule.instance;
+        for (int m = 0; m < instance.numMachines; m++) {
+            List<Task> onMachine = new ArrayList<>();
+            for (int job = 0; job < instance.numJobs; job++) {
+                onMachine.add(new Task(job, instance.task_with_machine(job, m)));
+            }
+            onMachine.sort(Comparator.comparingInt(schedule::startTime));
+            for (int i = 0; i < onMachine.size(); i++) {
+                Task t = onMachine.get(i);
+                int release = t.task == 0 ? 0 : schedule.endTime(t.job, t.task - 1);
+                // look for a gap before the task where it would fit
+                int gapStart = 0;
+                for (int k = 0; k < i; k++) {
+                    Task other = onMachine.get(k);
+                    int from = Math.max(gapStart, release);
+                    if (from + instance.duration(t) <= schedule.startTime(other) && from < schedule.startTime(t)) {
+                        return false;
+                    }
+                    gapStart = schedule.endTime(other);
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Schedules built by the Giffler and Thompson algorithm should be valid and active, whatever the priority. */
+    @Test
+    public void testPrioritiesBuildActiveSchedules() throws IOException {
+        for (String instanceName : new String[]{"aaa1", "ft06", "ft10", "la21", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            for (GreedySolver.Priority priority : GreedySolver.Priority.values()) {
+                Schedule schedule = new GifflerThompsonSolver(priority).solve(instance, Long.MAX_VALUE).get();
+                assert schedule.isValid();
+                assert isActive(schedule) : priority + " on " + instanceName;
+                assert schedule.isCriticalPath(schedule.criticalPath());
+            }
+        }
+    }
+
+    /** Encodings should drive the builder, even a resource order that contains a cycle. */
+    @Test
+    public void testEncodingsDriveTheBuilder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "la21"));
+        Random random = new Random(0);
+        int[] jobs = new int[instance.numJobs * instance.numTasks];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = i % instance.numJobs;
+        }
+        for (int run = 0; run < 50; run++) {
+            for (int i = jobs.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = jobs[i];
+                jobs[i] = jobs[j];
+                jobs[j] = tmp;
+            }
+            JobNumbers sequence = new JobNumbers(instance, jobs);
+            Schedule active = sequence.toActiveSchedule();
+            assert active.isValid() && isActive(active);
+
+            // an active schedule is its own active decoding
+            ResourceOrder order = new ResourceOrder(active);
+            assert order.toActiveSchedule().equals(active);
+            assert order.toSchedule().get().equals(active);
+        }
+
+        Instance small = Instance.fromFile(Paths.get("instances", "aaa1"));
+        ResourceOrder cyclic = new ResourceOrder(small);
+        // (1,0) -> (1,1) -> (0,0) -> (0,1) -> (1,0)
+        cyclic.addTaskToMachine(0, new Task(1, 1));
+        cyclic.addTaskToMachine(0, new Task(0, 0));
+        cyclic.addTaskToMachine(1, new Task(0, 1));
+        cyclic.addTaskToMachine(1, new Task(1, 0));
+        cyclic.addTaskToMachine(2, new Task(0, 2));
+        cyclic.addTaskToMachine(2, new Task(1, 2));
+        assert cyclic.toSchedule().isEmpty();
+        assert cyclic.toActiveSchedule().isValid();
+    }
+}
@@ -0,0 +1,72 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class JobNumbersTests {
+
+    /** Converting between resource orders and job numbers should preserve the schedule. */
+    @Test
+    public void testConversions() throws IOException {
+        for (String instanceName : new String[]{"aaa1", "ft06", "ft10", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Schedule schedule = new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, Long.MAX_VALUE).get();
+            ResourceOrder order = new ResourceOrder(schedule);
+
+            JobNumbers fromOrder = new JobNumbers(order);
+            assert fromOrder.isComplete();
+            assert fromOrder.toResourceOrder().equals(order);
+            assert fromOrder.toSchedule().get().equals(order.toSchedule().get());
+
+            JobNumbers fromSchedule = new JobNumbers(schedule);
+            assert fromSchedule.toResourceOrder().equals(order);
+            assert fromSchedule.toSchedule().get().makespan() == schedule.makespan();
+        }
+    }
+
+    /** Any permutation of a complete sequence should decode into a valid schedule. */
+    @Test
+    public void testRandomPermutationsAreValid() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "la21"));
+        int[] jobs = new int[instance.numJobs * instance.numTasks];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = i % instance.numJobs;
+        }
+        Random random = new Random(0);
+        JobNumbersDecoder decoder = new JobNumbersDecoder(instance);
+        for (int run = 0; run < 100; run++) {
+            for (int i = jobs.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = jobs[i];
+                jobs[i] = jobs[j];
+                jobs[j] = tmp;
+            }
+            JobNumbers sequence = new JobNumbers(instance, jobs);
+            Optional<Schedule> schedule = sequence.toSchedule(decoder);
+            assert schedule.isPresent() && schedule.get().isValid();
+            assert schedule.get().makespan() == decoder.makespan();
+            assert schedule.get().isCriticalPath(schedule.get().criticalPath());
+            assert sequence.toResourceOrder().toSchedule().get().equals(schedule.get());
+        }
+    }
+
+    /** Incomplete sequences, or sequences with too many occurrences of a job, do not represent a solution. */
+    @Test
+    public void testInvalidSequences() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "aaa1"));
+        JobNumbers sequence = new JobNumbers(instance);
+        sequence.addTask(0);
+        sequence.addTask(1);
+        assert sequence.toSchedule().isEmpty();
+
+        JobNumbers tooMany = new JobNumbers(instance, new int[]{0, 0, 0, 0, 1, 1});
+        assert !tooMany.isComplete();
+        assert tooMany.toSchedule().isEmpty();
+    }
+}
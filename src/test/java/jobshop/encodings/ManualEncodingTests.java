@@ -145,4 +145,92 @@ public class ManualEncodingTests {
 
         assert manualRO.toSchedule().isEmpty();
     }
+
+    @Test
+    public void testIncompleteResourceOrder() {
+        ResourceOrder manualRO = new ResourceOrder(instance);
+
+        /* Il manque la deuxième tâche de la machine 2 */
+        manualRO.addTaskToMachine(0, new Task(0, 0));
+        manualRO.addTaskToMachine(0, new Task(1, 1));
+        manualRO.addTaskToMachine(1, new Task(1, 0));
+        manualRO.addTaskToMachine(1, new Task(0, 1));
+        manualRO.addTaskToMachine(2, new Task(0, 2));
+
+        assert manualRO.toSchedule().isEmpty();
+    }
+
+    @Test
+    public void testDecoderReuse() {
+        ResourceOrder optimal = new ResourceOrder(instance);
+        optimal.addTaskToMachine(0, new Task(0, 0));
+        optimal.addTaskToMachine(0, new Task(1, 1));
+        optimal.addTaskToMachine(1, new Task(1, 0));
+        optimal.addTaskToMachine(1, new Task(0, 1));
+        optimal.addTaskToMachine(2, new Task(1, 2));
+        optimal.addTaskToMachine(2, new Task(0, 2));
+        ResourceOrder reference = new ResourceOrder(this.reference);
+
+        /* Un même décodeur doit pouvoir décoder plusieurs ordres successivement */
+        ScheduleDecoder decoder = new ScheduleDecoder(instance);
+        Schedule schedule = new Schedule(instance);
+        assert decoder.decodeInto(optimal, schedule);
+        assert schedule.makespan() == 11;
+        assert decoder.decodeInto(reference, schedule);
+        assert schedule.equals(this.reference);
+        assert decoder.makespan() == this.reference.makespan();
+
+        /* Les dates de fin et le makespan mémorisés suivent les modifications manuelles */
+        schedule.setStartTime(1, 2, 10);
+        assert schedule.endTime(1, 2) == 14 && schedule.makespan() == 14;
+    }
+
+    @Test
+    public void testIndexOfTaskInMachine() {
+        ResourceOrder order = new ResourceOrder(this.reference);
+        order.swapTasks(2, 0, 1);
+        ResourceOrder copy = order.copy();
+
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < instance.numJobs; i++) {
+                Task t = order.getTaskOfMachine(m, i);
+                assert order.getIndexOfTaskInMachine(t) == i;
+                assert copy.getIndexOfTaskInMachine(t) == i;
+            }
+        }
+        assert order.getIndexOfTaskInMachine(new Task(1, 2)) == 0;
+        assert new ResourceOrder(instance).getIndexOfTaskInMachine(new Task(1, 2)) == -1;
+    }
+
+    /** The validator should report the first violated constraint with its tasks. */
+    @Test
+    public void testViolations() {
+        Schedule schedule = new Schedule(instance);
+        schedule.setStartTime(0,0, 0);
+        schedule.setStartTime(0,1, 3);
+        schedule.setStartTime(0,2, 6);
+        schedule.setStartTime(1,0, 0);
+        schedule.setStartTime(1,1, 3);
+        schedule.setStartTime(1,2, 8);
+        assert schedule.isValid();
+        assert schedule.firstViolation().isEmpty();
+
+        // J1,1 now overlaps with J0,0 on machine 0
+        schedule.setStartTime(1,1, 2);
+        Optional<ScheduleValidator.Violation> overlap = schedule.firstViolation();
+        assert overlap.isPresent() && !schedule.isValid();
+        assert overlap.get().kind == ScheduleValidator.Kind.MACHINE_OVERLAP;
+        assert overlap.get().first.equals(new Task(0, 0)) && overlap.get().second.equals(new Task(1, 1));
+        assert overlap.get().message.contains("machine 0");
+
+        // J0,1 starts before the end of J0,0: job constraints are reported first
+        schedule.setStartTime(0,1, 2);
+        Optional<ScheduleValidator.Violation> precedence = schedule.firstViolation();
+        assert precedence.get().kind == ScheduleValidator.Kind.JOB_PRECEDENCE;
+        assert precedence.get().first.equals(new Task(0, 0)) && precedence.get().second.equals(new Task(0, 1));
+
+        schedule.setStartTime(0,1, 3);
+        schedule.setStartTime(1,0, -1);
+        assert schedule.firstViolation().get().kind == ScheduleValidator.Kind.NEGATIVE_START;
+    }
 }
@@ -0,0 +1,46 @@
+package jobshop.solvers;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class BranchAndBoundSolverTests {
+
+    /** Starting from a poor greedy solution, the search should find the optimum and prove it before the deadline. */
+    @Test
+    public void testOptimalSchedules() throws IOException {
+        for (String instanceName : new String[]{"aaa1", "ft06", "la05"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            for (int parallelism : new int[]{1, 3}) {
+                Solver solver = new BranchAndBoundSolver(new GreedySolver(GreedySolver.Priority.SPT), parallelism);
+                long start = System.currentTimeMillis();
+                Optional<Schedule> result = solver.solve(instance, start + 60000);
+                assert result.isPresent() && result.get().isValid();
+                int optimum = BestKnownResults.of(instanceName);
+                assert result.get().makespan() == optimum : instanceName + " with " + parallelism + " threads";
+                assert System.currentTimeMillis() - start < 30000;
+            }
+        }
+    }
+
+    /** On a harder instance, the search should report the initial upper bound first, then stop soon after the deadline
+     * with a solution at least as good as the initial one. */
+    @Test
+    public void testDeadline() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "ft10"));
+        Solver base = new GreedySolver(GreedySolver.Priority.EST_LRPT);
+        RecordingListener listener = new RecordingListener();
+        long deadline = System.currentTimeMillis() + 300;
+        Optional<Schedule> result = new BranchAndBoundSolver(base, 2).solve(instance, deadline, listener);
+        assert System.currentTimeMillis() - deadline < 500;
+        listener.checkResult(result, instance, base);
+
+        assert listener.iterations.get(0) == 0;
+        assert listener.makespans.get(0) == base.solve(instance, Long.MAX_VALUE).get().makespan();
+    }
+}
@@ -0,0 +1,58 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class DescentSolverTests {
+
+    /** The parallel evaluation of the neighborhood should select the same neighbors as the sequential one. */
+    @Test
+    public void testParallelDescentMatchesSequential() throws IOException {
+        for (String instanceName : new String[]{"ft10", "la21", "ta01", "ta21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            long deadline = System.currentTimeMillis() + 10000;
+
+            Solver sequential = new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT));
+            Solver parallel = new DescentSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_SPT), 4);
+            Optional<Schedule> expected = sequential.solve(instance, deadline);
+            Optional<Schedule> actual = parallel.solve(instance, deadline);
+
+            assert expected.isPresent() && actual.isPresent();
+            assert actual.get().isValid();
+            assert actual.get().equals(expected.get()) : "Different results on " + instanceName;
+        }
+    }
+
+    /** Each iteration should move to a neighbor with the smallest makespan, whether it is evaluated in parallel or not. */
+    @Test
+    public void testBestImprovement() throws IOException {
+        for (String instanceName : new String[]{"ft10", "la21", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Solver base = new GreedySolver(GreedySolver.Priority.EST_SPT);
+            ResourceOrder order = new ResourceOrder(base.solve(instance, Long.MAX_VALUE).get());
+
+            /* Meilleur voisin, obtenu en construisant tout le voisinage */
+            Nowicki nowicki = new Nowicki();
+            int best = order.toSchedule().get().makespan();
+            for (Nowicki.Swap swap : nowicki.allSwaps(order)) {
+                Optional<Schedule> neighbor = swap.generateFrom(order).toSchedule();
+                if (neighbor.isPresent()) {
+                    best = Math.min(best, neighbor.get().makespan());
+                }
+            }
+
+            for (int parallelism : new int[]{1, 4}) {
+                Optional<Schedule> result = new DescentSolver(nowicki, base, parallelism, 1).solve(instance, Long.MAX_VALUE);
+                assert result.isPresent() && result.get().isValid();
+                assert result.get().makespan() == best : instanceName + " with " + parallelism + " threads";
+            }
+        }
+    }
+}
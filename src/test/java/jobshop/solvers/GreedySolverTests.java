@@ -0,0 +1,68 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class GreedySolverTests {
+
+    /** Each dispatched task should be the most prioritary of the ready tasks. */
+    @Test
+    public void testSptOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "aaa1"));
+        Schedule schedule = new GreedySolver(GreedySolver.Priority.SPT).solve(instance, Long.MAX_VALUE).get();
+        // ready tasks are (0,0) of duration 3 and (1,0) of duration 2: (1,0) goes first on machine 1,
+        // then (1,1) of duration 2 is shorter than (0,0) and precedes it on machine 0
+        assert schedule.startTime(1, 0) == 0;
+        assert schedule.startTime(1, 1) == 2;
+        assert schedule.startTime(0, 0) == 4;
+        assert schedule.isValid();
+    }
+
+    /** The greedy solvers should produce valid schedules on all kinds of instances, also when randomized. */
+    @Test
+    public void testValidSchedules() throws IOException {
+        for (String instanceName : new String[]{"aaa1", "ft06", "la21", "ta41", "ta71"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            for (GreedySolver.Priority priority : GreedySolver.Priority.values()) {
+                Optional<Schedule> deterministic = new GreedySolver(priority).solve(instance, Long.MAX_VALUE);
+                Optional<Schedule> randomized = new GreedySolver(priority, 7, 0.3).solve(instance, Long.MAX_VALUE);
+                assert deterministic.isPresent() && deterministic.get().isValid() : priority + " on " + instanceName;
+                assert randomized.isPresent() && randomized.get().isValid() : priority + " on " + instanceName;
+            }
+        }
+    }
+
+    /** Rules parsed from their names should match the predefined priorities, and ties of a composite rule should be
+     * broken by the following rules. */
+    @Test
+    public void testRuleNames() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "la21"));
+        for (GreedySolver.Priority priority : GreedySolver.Priority.values()) {
+            Solver named = Solver.getSolver(priority.name().toLowerCase());
+            Optional<Schedule> expected = new GreedySolver(priority).solve(instance, Long.MAX_VALUE);
+            assert named.solve(instance, Long.MAX_VALUE).equals(expected) : priority.name();
+            assert Solver.getSolver("gt_" + priority.name().toLowerCase()).solve(instance, Long.MAX_VALUE).get().isValid();
+        }
+
+        PriorityRule estThenLrptThenSpt = PriorityRule.parse("est_lrpt_spt");
+        assert estThenLrptThenSpt.usesEarliestStart();
+        // same start: the task of the job with the most remaining work comes first
+        assert estThenLrptThenSpt.compare(instance, 0, 0, 10, 0, 1, 10) < 0;
+        assert estThenLrptThenSpt.compare(instance, 0, 0, 5, 1, 0, 10) < 0;
+        assert PriorityRule.SPT.thenBy(PriorityRule.EST).compare(instance, 0, 0, 5, 0, 0, 10) < 0;
+
+        try {
+            Solver.getSolver("est_nothing");
+            assert false : "Unknown rules should be rejected";
+        } catch (RuntimeException e) {
+            assert e.getMessage().contains("est_nothing");
+            // the part of the name that could not be parsed is reported
+            assert e.getMessage().contains("nothing in est_nothing") && e.getCause() != null;
+        }
+    }
+}
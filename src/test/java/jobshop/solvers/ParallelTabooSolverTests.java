@@ -0,0 +1,42 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class ParallelTabooSolverTests {
+
+    /** Randomized greedy solvers created with the same seed should build the same solutions. */
+    @Test
+    public void testRandomizedGreedyIsReproducible() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "ta01"));
+        for (GreedySolver.Priority priority : new GreedySolver.Priority[]{GreedySolver.Priority.SPT,
+                GreedySolver.Priority.EST_SPT, GreedySolver.Priority.EST_LRPT}) {
+            GreedySolver first = new GreedySolver(priority, 42, 0.2);
+            GreedySolver second = new GreedySolver(priority, 42, 0.2);
+            for (int run = 0; run < 5; run++) {
+                Optional<Schedule> a = first.solve(instance, Long.MAX_VALUE);
+                Optional<Schedule> b = second.solve(instance, Long.MAX_VALUE);
+                assert a.isPresent() && a.get().isValid();
+                assert a.equals(b) : "Different solutions for " + priority;
+            }
+        }
+    }
+
+    /** The walks should share their best solution, which can be no worse than the deterministic greedy one. */
+    @Test
+    public void testParallelTaboo() throws IOException {
+        for (String instanceName : new String[]{"ft06", "ft10", "la21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Solver solver = new ParallelTabooSolver(new Nowicki(), GreedySolver.Priority.EST_SPT, 3, 12, 200, 0);
+            RecordingListener listener = new RecordingListener();
+            Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 300, listener);
+            listener.checkResult(result, instance, new GreedySolver(GreedySolver.Priority.EST_SPT));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** Listener recording the events of a solver, checking on the fly that the reported makespans decrease. */
+final class RecordingListener implements ImprovementListener {
+
+    /** Iteration and makespan of each event, in the order in which they were reported. */
+    final List<Integer> iterations = new ArrayList<>();
+    final List<Integer> makespans = new ArrayList<>();
+
+    @Override
+    public void improved(long elapsed, int iteration, int makespan) {
+        assert makespans.isEmpty() || makespan < lastMakespan() : "Reported makespans should decrease";
+        iterations.add(iteration);
+        makespans.add(makespan);
+    }
+
+    int lastMakespan() {
+        return makespans.get(makespans.size() - 1);
+    }
+
+    /** Checks that the result is a valid schedule, that its makespan is the last one reported, and that it is no
+     * worse than the solution of the base solver. */
+    void checkResult(Optional<Schedule> result, Instance instance, Solver baseSolver) {
+        assert result.isPresent() && result.get().isValid();
+        assert !makespans.isEmpty() && result.get().makespan() == lastMakespan();
+        assert result.get().makespan() <= baseSolver.solve(instance, Long.MAX_VALUE).get().makespan();
+    }
+}
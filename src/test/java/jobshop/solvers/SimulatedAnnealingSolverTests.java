@@ -0,0 +1,69 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleDecoder;
+import jobshop.solvers.neighborhood.SwapEvaluator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class SimulatedAnnealingSolverTests {
+
+    /** The annealing should report decreasing makespans, return the last one and never lose the initial solution. */
+    @Test
+    public void testAnnealingImprovesInitialSolution() throws IOException {
+        for (String instanceName : new String[]{"ft06", "ft10", "la21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Solver base = new GifflerThompsonSolver(GreedySolver.Priority.LRPT);
+            Solver solver = new SimulatedAnnealingSolver(base, 0.5, 0.001, 0);
+            RecordingListener listener = new RecordingListener();
+            Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 300, listener);
+            listener.checkResult(result, instance, base);
+        }
+    }
+
+    /** With a very low final acceptance, the end of the search is a descent: no swap of a critical arc of the
+     * returned solution should improve it. */
+    @Test
+    public void testColdEndIsLocalMinimum() throws IOException {
+        for (String instanceName : new String[]{"ft06", "ft10", "la21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Solver solver = new SimulatedAnnealingSolver(new GifflerThompsonSolver(GreedySolver.Priority.LRPT),
+                    0.5, 1e-9, 50000, 0);
+            Optional<Schedule> result = solver.solve(instance, Long.MAX_VALUE);
+            assert result.isPresent() && result.get().isValid();
+            int makespan = result.get().makespan();
+
+            ResourceOrder order = new ResourceOrder(result.get());
+            SwapEvaluator evaluator = new SwapEvaluator(instance);
+            evaluator.update(order);
+            ScheduleDecoder decoder = new ScheduleDecoder(instance);
+            int[] arcs = new int[instance.numMachines * instance.numJobs];
+            int numArcs = SimulatedAnnealingSolver.criticalArcs(instance, evaluator, arcs);
+            for (int a = 0; a < numArcs; a++) {
+                int machine = arcs[a] / instance.numJobs;
+                int position = arcs[a] % instance.numJobs;
+                order.swapTasks(machine, position, position + 1);
+                assert !decoder.run(order) || decoder.makespan() >= makespan : instanceName + ": improving swap";
+                order.swapTasks(machine, position, position + 1);
+            }
+        }
+    }
+
+    /** With an iteration budget, the search should be reproducible and stop without waiting for the deadline. */
+    @Test
+    public void testIterationBudget() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", "ft10"));
+        Solver solver = new SimulatedAnnealingSolver(new GreedySolver(GreedySolver.Priority.EST_LRPT), 0.5, 0.01, 20000, 7);
+        Optional<Schedule> first = solver.solve(instance, Long.MAX_VALUE);
+        Optional<Schedule> second = solver.solve(instance, Long.MAX_VALUE);
+        assert first.isPresent() && first.get().isValid();
+        assert first.equals(second);
+
+        assert Solver.getSolver("sa_gt_lrpt:0.3:0.001") instanceof SimulatedAnnealingSolver;
+    }
+}
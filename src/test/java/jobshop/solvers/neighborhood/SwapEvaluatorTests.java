@@ -0,0 +1,71 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.CriticalPath;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class SwapEvaluatorTests {
+
+    /** Checks that the heads and tails give the makespan and that the swap estimates are lower bounds. */
+    @Test
+    public void testEstimatesOfNowickiSwaps() throws IOException {
+        for (String instanceName : new String[]{"ft06", "ft10", "la16", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            Optional<Schedule> greedy = new GreedySolver(GreedySolver.Priority.EST_SPT).solve(instance, System.currentTimeMillis() + 1000);
+            assert greedy.isPresent();
+            ResourceOrder order = new ResourceOrder(greedy.get());
+
+            SwapEvaluator evaluator = new SwapEvaluator(instance);
+            assert evaluator.update(order);
+            assert evaluator.makespan() == order.toSchedule().get().makespan() : "Wrong makespan on " + instanceName;
+
+            Nowicki nowicki = new Nowicki();
+            // the swaps obtained from the critical path of the evaluator are those of the decoded schedule
+            assert nowicki.allSwaps(order, evaluator, new CriticalPath(instance)).equals(nowicki.allSwaps(order));
+            for (Nowicki.Swap swap : nowicki.allSwaps(order)) {
+                Optional<Schedule> neighbor = swap.generateFrom(order).toSchedule();
+                assert neighbor.isPresent() : "A swap on a critical block should never create a cycle";
+                assert evaluator.estimate(swap) <= neighbor.get().makespan() : "The estimate should be a lower bound";
+            }
+        }
+    }
+
+    /** Checks that the evaluator detects invalid resource orders. */
+    @Test
+    public void testCycleDetection() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        ResourceOrder order = new ResourceOrder(instance);
+        order.addTaskToMachine(1, new Task(0, 1));
+        order.addTaskToMachine(0, new Task(1, 1));
+        order.addTaskToMachine(1, new Task(1, 0));
+        order.addTaskToMachine(0, new Task(0, 0));
+        order.addTaskToMachine(2, new Task(1, 2));
+        order.addTaskToMachine(2, new Task(0, 2));
+
+        assert !new SwapEvaluator(instance).update(order);
+    }
+
+    /** Checks that applying a move in place gives the generated neighbor and that undoing it restores the solution. */
+    @Test
+    public void testApplyAndUndo() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_SPT).solve(instance, System.currentTimeMillis() + 1000).get());
+        ResourceOrder original = order.copy();
+
+        Neighborhood neighborhood = new Nowicki();
+        for (Nowicki.Swap swap : neighborhood.allSwaps(order)) {
+            neighborhood.apply(order, swap);
+            assert order.equals(swap.generateFrom(original));
+            neighborhood.undo(order, swap);
+            assert order.equals(original);
+        }
+    }
+}
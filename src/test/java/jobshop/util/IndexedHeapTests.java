@@ -0,0 +1,36 @@
+package jobshop.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class IndexedHeapTests {
+
+    /** The indexed heap should extract elements by increasing key, then by increasing element. */
+    @Test
+    public void testIndexedHeap() {
+        Random random = new Random(1);
+        IndexedHeap heap = new IndexedHeap(100);
+        long[] keys = new long[100];
+        for (int e = 0; e < 100; e++) {
+            keys[e] = random.nextInt(20);
+            heap.add(e, keys[e]);
+        }
+        for (int e = 0; e < 100; e += 3) {
+            keys[e] = random.nextInt(20);
+            heap.update(e, keys[e]);
+        }
+        for (int e = 1; e < 100; e += 7) {
+            heap.remove(e);
+        }
+        long lastKey = Long.MIN_VALUE;
+        int lastElement = -1;
+        while (!heap.isEmpty()) {
+            int e = heap.poll();
+            assert e % 7 != 1;
+            assert keys[e] > lastKey || (keys[e] == lastKey && e > lastElement);
+            lastKey = keys[e];
+            lastElement = e;
+        }
+    }
+}